@@ -2,12 +2,14 @@ package com.banking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application Class
  * Entry point for the Modern Banking System
  */
 @SpringBootApplication
+@EnableScheduling
 public class BankingApplication {
 
     public static void main(String[] args) {
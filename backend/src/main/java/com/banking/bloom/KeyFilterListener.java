@@ -0,0 +1,35 @@
+package com.banking.bloom;
+
+import com.banking.model.Account;
+import com.banking.model.User;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that adds every inserted account and user to the {@link KeyFilters}.
+ * Keys are added before commit; a rollback only leaves a harmless false positive.
+ */
+@Component
+public class KeyFilterListener {
+
+    // Resolved lazily: Hibernate creates listeners while the repositories KeyFilters needs are still being built
+    private final ObjectProvider<KeyFilters> keyFilters;
+
+    public KeyFilterListener(ObjectProvider<KeyFilters> keyFilters) {
+        this.keyFilters = keyFilters;
+    }
+
+    @PostPersist
+    void inserted(Object entity) {
+        KeyFilters filters = keyFilters.getIfAvailable();
+        if (filters == null) {
+            return;
+        }
+        if (entity instanceof Account account) {
+            filters.addAccount(account.getAccountNumber());
+        } else if (entity instanceof User user) {
+            filters.addUser(user.getUsername(), user.getEmail());
+        }
+    }
+}
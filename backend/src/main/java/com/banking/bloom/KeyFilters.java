@@ -0,0 +1,165 @@
+package com.banking.bloom;
+
+import com.banking.repository.AccountRepository;
+import com.banking.repository.UserKeyView;
+import com.banking.repository.UserRepository;
+import com.banking.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters of the account numbers, usernames and emails in the database, so lookups
+ * for keys that do not exist can be answered without a query.
+ *
+ * The filters are built at startup from a streaming scan of the key columns and kept
+ * current by {@link KeyFilterListener} on every insert. A "no" is only trustworthy if
+ * this node sees every insert, so with several application nodes writing to one database
+ * the filters must be disabled (banking.bloom.enabled=false). Until they are built, every
+ * key counts as possibly present.
+ */
+@Component
+public class KeyFilters {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyFilters.class);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private final TransactionTemplate scanTransaction;
+    private final boolean enabled;
+    private final long accountCapacity;
+    private final long userCapacity;
+    private final double falsePositiveRate;
+    private final Counter accountMisses;
+    private final Counter usernameMisses;
+    private final Counter emailMisses;
+
+    private volatile BloomFilter accounts;
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+
+    public KeyFilters(PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry,
+                      @Value("${banking.bloom.enabled:true}") boolean enabled,
+                      @Value("${banking.bloom.accounts.capacity:1000000}") long accountCapacity,
+                      @Value("${banking.bloom.users.capacity:1000000}") long userCapacity,
+                      @Value("${banking.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.enabled = enabled;
+        this.accountCapacity = accountCapacity;
+        this.userCapacity = userCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+
+        // Not read-only: a lagging read replica could miss keys and turn them into false negatives
+        this.scanTransaction = new TransactionTemplate(transactionManager);
+
+        this.accountMisses = meterRegistry.counter("banking.bloom.negatives", "filter", "accounts");
+        this.usernameMisses = meterRegistry.counter("banking.bloom.negatives", "filter", "usernames");
+        this.emailMisses = meterRegistry.counter("banking.bloom.negatives", "filter", "emails");
+    }
+
+    @PostConstruct
+    void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        // Leave room to grow when the tables already exceed the configured capacity
+        long accountCount = shardRouter.readEveryShard(() -> List.of(accountRepository.count()))
+                .stream().mapToLong(Long::longValue).sum();
+        BloomFilter accountFilter = new BloomFilter(Math.max(accountCapacity, 2 * accountCount), falsePositiveRate);
+        long userCount = userRepository.count();
+        BloomFilter usernameFilter = new BloomFilter(Math.max(userCapacity, 2 * userCount), falsePositiveRate);
+        BloomFilter emailFilter = new BloomFilter(Math.max(userCapacity, 2 * userCount), falsePositiveRate);
+
+        shardRouter.forEachShard(() -> scanTransaction.executeWithoutResult(status -> {
+            try (Stream<String> keys = accountRepository.streamAccountNumbers()) {
+                keys.forEach(accountFilter::add);
+            }
+        }));
+        scanTransaction.executeWithoutResult(status -> {
+            try (Stream<UserKeyView> keys = userRepository.streamKeys()) {
+                keys.forEach(user -> {
+                    usernameFilter.add(normalize(user.getUsername()));
+                    emailFilter.add(normalize(user.getEmail()));
+                });
+            }
+        });
+
+        accounts = accountFilter;
+        usernames = usernameFilter;
+        emails = emailFilter;
+        log.info("Built key filters for {} accounts and {} users in {} ms", accountCount, userCount,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * False only if no account with this number exists
+     */
+    public boolean mightHaveAccount(String accountNumber) {
+        return mightContain(accounts, accountNumber, accountMisses);
+    }
+
+    /**
+     * False only if no user has this username
+     */
+    public boolean mightHaveUsername(String username) {
+        return mightContain(usernames, normalize(username), usernameMisses);
+    }
+
+    /**
+     * False only if no user has this email
+     */
+    public boolean mightHaveEmail(String email) {
+        return mightContain(emails, normalize(email), emailMisses);
+    }
+
+    void addAccount(String accountNumber) {
+        BloomFilter filter = accounts;
+        if (filter != null) {
+            filter.add(accountNumber);
+        }
+    }
+
+    void addUser(String username, String email) {
+        BloomFilter usernameFilter = usernames;
+        BloomFilter emailFilter = emails;
+        if (usernameFilter != null) {
+            usernameFilter.add(normalize(username));
+            emailFilter.add(normalize(email));
+        }
+    }
+
+    private static boolean mightContain(BloomFilter filter, String key, Counter misses) {
+        if (filter == null || key == null || filter.mightContain(key)) {
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Databases may compare these columns case-insensitively, so case variants must map
+     * to the same bits (a false "maybe" only costs the query we would have run anyway)
+     */
+    private static String normalize(String key) {
+        return key == null ? null : key.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,37 @@
+package com.banking.config;
+
+import com.banking.security.SessionTokenInterceptor;
+import com.banking.security.SessionTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Session tokens are required for the account, transaction, dashboard and event endpoints
+ */
+@Configuration
+public class AuthConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private SessionTokenService tokenService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        Counter rejected = meterRegistry.counter("banking.auth.rejected");
+        registry.addInterceptor(new SessionTokenInterceptor(tokenService, objectMapper, rejected, false))
+                .addPathPatterns("/api/accounts/**", "/api/transactions/**", "/api/dashboard/**");
+        // EventSource cannot send an Authorization header
+        registry.addInterceptor(new SessionTokenInterceptor(tokenService, objectMapper, rejected, true))
+                .addPathPatterns("/api/events/**");
+    }
+}
@@ -0,0 +1,109 @@
+package com.banking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replica routing (banking.datasource.replicas.enabled=true).
+ *
+ * Wraps the auto-configured DataSource, which stays the primary, in a
+ * {@link ReadReplicaDataSource} over one pool per configured replica, so
+ * {@code @Transactional(readOnly = true)} service methods read from the replicas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    public static BeanPostProcessor readReplicaRouting(Environment environment) {
+        Binder binder = Binder.get(environment);
+        ReadReplicaProperties properties = binder
+                .bind("banking.datasource.replicas", ReadReplicaProperties.class)
+                .orElseGet(ReadReplicaProperties::new);
+        // Virtual threads queue in front of every pool, replicas included (see VirtualThreadConfig)
+        Duration admissionTimeout = binder.bind("spring.threads.virtual.enabled", Boolean.class).orElse(false)
+                ? binder.bind("banking.datasource.admission.timeout", Duration.class).orElse(Duration.ofSeconds(30))
+                : null;
+        return new RoutingPostProcessor(properties, admissionTimeout);
+    }
+
+    @Bean
+    public MeterBinder readReplicaMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ReadReplicaDataSource routing) {
+                routing.bindMetrics(registry);
+            }
+        };
+    }
+
+    /**
+     * Runs after connection admission has wrapped the primary pool
+     */
+    private static final class RoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ReadReplicaProperties properties;
+        private final Duration admissionTimeout;
+
+        private RoutingPostProcessor(ReadReplicaProperties properties, Duration admissionTimeout) {
+            this.properties = properties;
+            this.admissionTimeout = admissionTimeout;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)
+                    || bean instanceof ReadReplicaDataSource) {
+                return bean;
+            }
+            List<ReadReplicaProperties.Node> nodes = properties.getNodes();
+            if (nodes.isEmpty()) {
+                throw new IllegalStateException(
+                        "banking.datasource.replicas.enabled is set but no banking.datasource.replicas.nodes are configured");
+            }
+
+            Map<String, DataSource> replicas = new LinkedHashMap<>();
+            for (int i = 0; i < nodes.size(); i++) {
+                String name = "replica-" + (i + 1);
+                replicas.put(name, replicaPool(name, nodes.get(i)));
+            }
+            return new ReadReplicaDataSource(primary, replicas,
+                    properties.getHealthCheckInterval(), properties.getHealthCheckTimeout());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        private DataSource replicaPool(String name, ReadReplicaProperties.Node node) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(node.getUrl())
+                    .username(node.getUsername())
+                    .password(node.getPassword())
+                    .build();
+            pool.setPoolName(name);
+            pool.setMaximumPoolSize(properties.getPoolSize());
+            pool.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            // Writes that end up on a replica fail instead of diverging from the primary
+            pool.setReadOnly(true);
+            return admissionTimeout == null
+                    ? pool
+                    : new ConnectionAdmissionDataSource(pool, properties.getPoolSize(), admissionTimeout);
+        }
+    }
+}
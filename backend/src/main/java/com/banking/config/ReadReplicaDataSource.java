@@ -0,0 +1,197 @@
+package com.banking.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the primary.
+ *
+ * Connections are handed out lazily, so the target is picked at the first statement, after
+ * the transaction manager has marked the transaction read-only. Replicas take turns
+ * round-robin; one that fails to hand out a connection or fails its periodic validity check
+ * is skipped until it passes again, and with no replica available reads fall back to the
+ * primary. Reads joining a read-write transaction stay on the primary and see its writes.
+ */
+public class ReadReplicaDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final int healthCheckTimeoutSeconds;
+    private final ScheduledExecutorService healthCheck;
+
+    public ReadReplicaDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                 Duration healthCheckInterval, Duration healthCheckTimeout) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        // Connection.isValid takes whole seconds; 0 would mean no timeout
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+
+        healthCheck = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-health").daemon().factory());
+        healthCheck.scheduleWithFixedDelay(this::checkReplicas,
+                healthCheckInterval.toMillis(), healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replicas currently taking reads
+     */
+    public int getHealthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * Connections handed out per target, and read-only transactions that fell back to the primary
+     */
+    public void bindMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("banking.datasource.connections", primaryConnections, LongAdder::sum)
+                .tag("target", "primary")
+                .register(registry);
+        for (Replica replica : replicas) {
+            FunctionCounter.builder("banking.datasource.connections", replica.connections, LongAdder::sum)
+                    .tag("target", replica.name)
+                    .register(registry);
+        }
+        FunctionCounter.builder("banking.datasource.replica.fallbacks", fallbacks, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("banking.datasource.replicas.healthy", this, ReadReplicaDataSource::getHealthyReplicas)
+                .register(registry);
+    }
+
+    /**
+     * Stop health checks and close every pool behind this data source
+     */
+    @Override
+    public void close() throws Exception {
+        healthCheck.shutdownNow();
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+        closeQuietly(primary);
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean valid;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                valid = connection.isValid(healthCheckTimeoutSeconds);
+            } catch (SQLException | RuntimeException e) {
+                valid = false;
+            }
+            if (valid && !replica.healthy) {
+                log.info("Read replica {} is back, routing reads to it again", replica.name);
+            } else if (!valid && replica.healthy) {
+                log.warn("Read replica {} failed its health check, routing around it", replica.name);
+            }
+            replica.healthy = valid;
+        }
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = source.get(replica.dataSource);
+                    replica.connections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                    log.warn("Read replica {} did not hand out a connection, routing around it", replica.name, e);
+                }
+            }
+            fallbacks.increment();
+        }
+        Connection connection = source.get(primary);
+        primaryConnections.increment();
+        return connection;
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close data source {}", dataSource, e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder connections = new LongAdder();
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * Picks the physical data source; unwrapping reaches the primary pool so its metrics and
+     * health indicator keep working
+     */
+    private final class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return route(DataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return route(dataSource -> dataSource.getConnection(username, password));
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.isWrapperFor(iface);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.banking.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas (banking.datasource.replicas.*).
+ * Bound by {@link ReadReplicaConfig} before the DataSource is created, so not a bean itself.
+ */
+@Data
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Replicas to spread read-only transactions over, in round-robin order
+     */
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Connections per replica pool
+     */
+    private int poolSize = 10;
+
+    /**
+     * How long a read waits for a replica connection before the replica is marked down
+     * and the read moves on
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How often every replica is validated; a replica that was marked down returns after
+     * its next successful check
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+    @Data
+    public static class Node {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
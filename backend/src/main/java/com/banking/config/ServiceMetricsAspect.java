@@ -0,0 +1,79 @@
+package com.banking.config;
+
+import com.banking.model.Transaction;
+import com.banking.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times service calls. Runs outside the @Transactional proxy so commit time is included.
+ *
+ * banking.service.calls  - every public AccountService / TransactionService method (service, method, outcome)
+ * banking.transactions   - every deposit, withdrawal and transfer (type, status); lookups and
+ *                          asynchronous submissions are left out, as clients poll and resubmit
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    private static final Set<String> POSTINGS = Set.of("deposit", "withdraw", "transfer");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.banking.service.AccountService.*(..)) "
+            + "|| execution(public * com.banking.service.TransactionService.*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            long nanos = sample.stop(Timer.builder("banking.service.calls")
+                    .tag("service", signature.getDeclaringType().getSimpleName())
+                    .tag("method", signature.getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+
+            if (signature.getDeclaringType() == TransactionService.class && POSTINGS.contains(signature.getName())) {
+                recordPosting(nanos, signature.getName(), result);
+            }
+        }
+    }
+
+    private void recordPosting(long nanos, String method, Object result) {
+        String type;
+        String status;
+        if (result instanceof Transaction transaction) {
+            type = transaction.getType().name();
+            status = transaction.getStatus().name();
+        } else {
+            type = method.toUpperCase(Locale.ROOT);
+            status = Transaction.TransactionStatus.FAILED.name();
+        }
+        Timer.builder("banking.transactions")
+                .tag("type", type)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
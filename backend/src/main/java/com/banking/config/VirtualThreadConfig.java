@@ -0,0 +1,59 @@
+package com.banking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Extra wiring for spring.threads.virtual.enabled=true.
+ *
+ * Boot already runs Tomcat requests, @Async / MVC async work and scheduling on
+ * virtual threads in that mode; this adds connection admission so thousands of
+ * virtual threads queue in front of the pool rather than inside it.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static BeanPostProcessor connectionAdmission(
+            @Value("${banking.datasource.admission.timeout:30s}") Duration timeout) {
+        return new AdmissionPostProcessor(timeout);
+    }
+
+    /**
+     * Runs before other DataSource wrappers (read replica routing) so it still sees the pool itself
+     */
+    private static final class AdmissionPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Duration timeout;
+
+        private AdmissionPostProcessor(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                // Hikari reports -1 until its pool starts when the size was left unset
+                int poolSize = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+                return new ConnectionAdmissionDataSource(hikari, poolSize, timeout);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
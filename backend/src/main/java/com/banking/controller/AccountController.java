@@ -1,15 +1,24 @@
 package com.banking.controller;
 
 import com.banking.dto.AccountRequest;
+import com.banking.dto.AccountSummary;
 import com.banking.dto.ApiResponse;
+import com.banking.exception.AccessDeniedException;
 import com.banking.model.Account;
+import com.banking.model.AccountActivity;
+import com.banking.model.AccountDailyActivity;
+import com.banking.security.SessionTokenInterceptor;
+import com.banking.service.AccountActivityService;
+import com.banking.service.AccountCache;
 import com.banking.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -24,12 +33,24 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private AccountActivityService activityService;
+
     /**
      * Create a new account
      * POST /api/accounts/create
      */
     @PostMapping("/create")
-    public ResponseEntity<ApiResponse> createAccount(@Valid @RequestBody AccountRequest request) {
+    public ResponseEntity<ApiResponse> createAccount(
+            @Valid @RequestBody AccountRequest request,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        // Accounts are only opened for the logged-in user
+        if (!request.getUserId().equals(userId)) {
+            throw new AccessDeniedException("Access denied");
+        }
         Account account = accountService.createAccount(request);
 
         return ResponseEntity
@@ -43,7 +64,7 @@ public class AccountController {
      */
     @GetMapping("/user/{userId}")
     public ResponseEntity<ApiResponse> getUserAccounts(@PathVariable Long userId) {
-        List<Account> accounts = accountService.getAccountsByUserId(userId);
+        List<AccountSummary> accounts = accountService.getAccountSummariesByUserId(userId);
 
         return ResponseEntity
                 .ok(ApiResponse.success("Accounts retrieved successfully", accounts));
@@ -54,7 +75,10 @@ public class AccountController {
      * GET /api/accounts/{accountNumber}
      */
     @GetMapping("/{accountNumber}")
-    public ResponseEntity<ApiResponse> getAccount(@PathVariable String accountNumber) {
+    public ResponseEntity<ApiResponse> getAccount(
+            @PathVariable String accountNumber,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        accountService.requireOwner(accountNumber, userId);
         Account account = accountService.getAccountByNumber(accountNumber);
 
         return ResponseEntity
@@ -66,11 +90,56 @@ public class AccountController {
      * GET /api/accounts/{accountNumber}/balance
      */
     @GetMapping("/{accountNumber}/balance")
-    public ResponseEntity<ApiResponse> getBalance(@PathVariable String accountNumber) {
+    public ResponseEntity<ApiResponse> getBalance(
+            @PathVariable String accountNumber,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        accountService.requireOwner(accountNumber, userId);
         var balance = accountService.getBalance(accountNumber);
 
         return ResponseEntity
                 .ok(ApiResponse.success("Balance retrieved successfully",
                         Map.of("accountNumber", accountNumber, "balance", balance)));
     }
+
+    /**
+     * Get money in/out and transaction counts of an account
+     * GET /api/accounts/{accountNumber}/summary
+     */
+    @GetMapping("/{accountNumber}/summary")
+    public ResponseEntity<ApiResponse> getSummary(
+            @PathVariable String accountNumber,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        accountService.requireOwner(accountNumber, userId);
+        AccountActivity activity = activityService.getActivity(accountNumber);
+
+        return ResponseEntity
+                .ok(ApiResponse.success("Account summary retrieved successfully", activity));
+    }
+
+    /**
+     * Get per-day money in/out and transaction counts of an account (last 30 days by default)
+     * GET /api/accounts/{accountNumber}/summary/daily?from=2024-01-01&to=2024-01-31
+     */
+    @GetMapping("/{accountNumber}/summary/daily")
+    public ResponseEntity<ApiResponse> getDailySummary(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        accountService.requireOwner(accountNumber, userId);
+        List<AccountDailyActivity> days = activityService.getDailyActivity(accountNumber, from, to);
+
+        return ResponseEntity
+                .ok(ApiResponse.success("Daily summary retrieved successfully", days));
+    }
+
+    /**
+     * Get account cache statistics
+     * GET /api/accounts/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse> getCacheStats() {
+        return ResponseEntity
+                .ok(ApiResponse.success("Cache statistics retrieved successfully", accountCache.stats()));
+    }
 }
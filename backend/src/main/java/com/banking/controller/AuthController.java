@@ -4,12 +4,15 @@ import com.banking.dto.ApiResponse;
 import com.banking.dto.LoginRequest;
 import com.banking.dto.RegisterRequest;
 import com.banking.model.User;
+import com.banking.security.SessionTokenInterceptor;
+import com.banking.security.SessionTokenService;
 import com.banking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.Map;
 
@@ -24,6 +27,9 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SessionTokenService tokenService;
+
     /**
      * Register a new user
      * POST /api/auth/register
@@ -51,7 +57,26 @@ public class AuthController {
     public ResponseEntity<ApiResponse> login(@Valid @RequestBody LoginRequest request) {
         Map<String, Object> userData = userService.loginUser(request);
 
+        // Session token for the Authorization: Bearer header of later calls
+        userData.put("token", tokenService.issue((Long) userData.get("id")));
+        userData.put("expiresIn", tokenService.getTtl().toSeconds());
+
         return ResponseEntity
                 .ok(ApiResponse.success("Login successful", userData));
     }
+
+    /**
+     * Logout: revoke the session token
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logout(HttpServletRequest request) {
+        String token = SessionTokenInterceptor.bearerToken(request);
+        if (token != null) {
+            tokenService.revoke(token);
+        }
+
+        return ResponseEntity
+                .ok(ApiResponse.success("Logout successful"));
+    }
 }
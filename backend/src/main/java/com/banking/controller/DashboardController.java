@@ -0,0 +1,34 @@
+package com.banking.controller;
+
+import com.banking.dto.ApiResponse;
+import com.banking.dto.Dashboard;
+import com.banking.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for the dashboard view
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    /**
+     * Get all accounts of a user with their latest transactions
+     * GET /api/dashboard/{userId}?transactions=10
+     */
+    @GetMapping("/{userId}")
+    public ResponseEntity<ApiResponse> getDashboard(
+            @PathVariable Long userId,
+            @RequestParam(value = "transactions", required = false) Integer transactions) {
+        Dashboard dashboard = dashboardService.getDashboard(userId, transactions);
+
+        return ResponseEntity
+                .ok(ApiResponse.success("Dashboard retrieved successfully", dashboard));
+    }
+}
@@ -0,0 +1,28 @@
+package com.banking.controller;
+
+import com.banking.events.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller for live dashboard updates (Server-Sent Events)
+ */
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventStreamController {
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    /**
+     * Stream balance, transaction and new-account events for a user
+     * GET /api/events/{userId}
+     */
+    @GetMapping(value = "/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable Long userId) {
+        return eventStreamService.subscribe(userId);
+    }
+}
@@ -1,15 +1,31 @@
 package com.banking.controller;
 
 import com.banking.dto.ApiResponse;
+import com.banking.dto.TransactionPage;
 import com.banking.dto.TransactionRequest;
+import com.banking.exception.AccessDeniedException;
 import com.banking.model.Transaction;
+import com.banking.ratelimit.RateLimiter;
+import com.banking.security.SessionTokenInterceptor;
+import com.banking.service.AccountService;
+import com.banking.service.IdempotencyService;
+import com.banking.service.StatementService;
 import com.banking.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -20,16 +36,41 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class TransactionController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String PREFER = "Prefer";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${banking.statements.export-timeout:1h}")
+    private Duration exportTimeout;
+
     /**
      * Deposit money
-     * POST /api/transactions/deposit
+     * POST /api/transactions/deposit (optional Idempotency-Key header; rate limited per user and account)
      */
     @PostMapping("/deposit")
-    public ResponseEntity<ApiResponse> deposit(@Valid @RequestBody TransactionRequest request) {
-        Transaction transaction = transactionService.deposit(request);
+    public ResponseEntity<ApiResponse> deposit(
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        accountService.requireOwner(request.getAccountNumber(), userId);
+        rateLimiter.acquire("deposit", userId, request.getAccountNumber());
+        Transaction transaction = idempotencyService.execute(userId, idempotencyKey, "DEPOSIT", request,
+                requestKey -> transactionService.deposit(request, requestKey));
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -38,11 +79,17 @@ public class TransactionController {
 
     /**
      * Withdraw money
-     * POST /api/transactions/withdraw
+     * POST /api/transactions/withdraw (optional Idempotency-Key header; rate limited per user and account)
      */
     @PostMapping("/withdraw")
-    public ResponseEntity<ApiResponse> withdraw(@Valid @RequestBody TransactionRequest request) {
-        Transaction transaction = transactionService.withdraw(request);
+    public ResponseEntity<ApiResponse> withdraw(
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        accountService.requireOwner(request.getAccountNumber(), userId);
+        rateLimiter.acquire("withdraw", userId, request.getAccountNumber());
+        Transaction transaction = idempotencyService.execute(userId, idempotencyKey, "WITHDRAW", request,
+                requestKey -> transactionService.withdraw(request, requestKey));
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -51,26 +98,121 @@ public class TransactionController {
 
     /**
      * Transfer money
-     * POST /api/transactions/transfer
+     * POST /api/transactions/transfer (optional Idempotency-Key header; rate limited per user and account)
+     * With "Prefer: respond-async" the transfer is accepted as PENDING and settled in the background
      */
     @PostMapping("/transfer")
-    public ResponseEntity<ApiResponse> transfer(@Valid @RequestBody TransactionRequest request) {
-        Transaction transaction = transactionService.transfer(request);
+    public ResponseEntity<ApiResponse> transfer(
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestHeader(value = PREFER, required = false) String prefer,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        // Money may go to anyone's account, but only leave the user's own
+        accountService.requireOwner(request.getAccountNumber(), userId);
+        rateLimiter.acquire("transfer", userId, request.getAccountNumber());
+        boolean async = prefer != null && prefer.toLowerCase().contains(RESPOND_ASYNC);
+        Transaction transaction = idempotencyService.execute(userId, idempotencyKey, "TRANSFER", request,
+                requestKey -> async
+                        ? transactionService.submitTransfer(request, requestKey)
+                        : transactionService.transfer(request, requestKey));
 
+        // Queued transfers and transfers between shards can still be completing, or have been reversed
+        if (transaction.getStatus() == Transaction.TransactionStatus.PENDING) {
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/transactions/" + transaction.getId()))
+                    .body(ApiResponse.success("Transfer accepted and being processed", transaction));
+        }
+        if (transaction.getStatus() == Transaction.TransactionStatus.FAILED) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse(false, "Transfer could not be completed and was reversed", transaction));
+        }
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Transfer successful", transaction));
     }
 
+    /**
+     * Get a transaction, e.g. the status of an accepted transfer
+     * GET /api/transactions/{id} (only for a transaction on one of the user's accounts)
+     */
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<ApiResponse> getTransaction(
+            @PathVariable Long id,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        Transaction transaction = transactionService.getTransaction(id);
+        if (!ownsEither(transaction, userId)) {
+            throw new AccessDeniedException("Access denied");
+        }
+
+        return ResponseEntity
+                .ok(ApiResponse.success("Transaction retrieved successfully", transaction));
+    }
+
     /**
      * Get transaction history for an account
      * GET /api/transactions/account/{accountNumber}
      */
     @GetMapping("/account/{accountNumber}")
-    public ResponseEntity<ApiResponse> getTransactionHistory(@PathVariable String accountNumber) {
+    public ResponseEntity<ApiResponse> getTransactionHistory(
+            @PathVariable String accountNumber,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        accountService.requireOwner(accountNumber, userId);
         List<Transaction> transactions = transactionService.getTransactionHistory(accountNumber);
 
         return ResponseEntity
                 .ok(ApiResponse.success("Transaction history retrieved successfully", transactions));
     }
+
+    /**
+     * Get one page of transaction history for an account
+     * GET /api/transactions/account/{accountNumber}/page?cursor=&size=
+     */
+    @GetMapping("/account/{accountNumber}/page")
+    public ResponseEntity<ApiResponse> getTransactionPage(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId) {
+        accountService.requireOwner(accountNumber, userId);
+        TransactionPage page = transactionService.getTransactionPage(accountNumber, cursor, size);
+
+        return ResponseEntity
+                .ok(ApiResponse.success("Transaction page retrieved successfully", page));
+    }
+
+    /**
+     * Stream a statement for an account as CSV or NDJSON
+     * GET /api/transactions/account/{accountNumber}/export?format=csv&from=2024-01-01&to=2024-12-31
+     */
+    @GetMapping("/account/{accountNumber}/export")
+    public WebAsyncTask<Void> exportStatement(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestAttribute(SessionTokenInterceptor.USER_ID_ATTRIBUTE) Long userId,
+            HttpServletResponse response) {
+        accountService.requireOwner(accountNumber, userId);
+        StatementService.Format exportFormat = StatementService.Format.parse(format);
+        statementService.validateExport(accountNumber, from, to);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"statement-" + accountNumber + "." + exportFormat.getExtension() + "\"");
+
+        // Exports outlive spring.mvc.async.request-timeout, so they carry their own limit
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            try (OutputStream out = response.getOutputStream()) {
+                statementService.exportStatement(accountNumber, from, to, exportFormat, out);
+            }
+            return null;
+        });
+    }
+
+    private boolean ownsEither(Transaction transaction, Long userId) {
+        return (transaction.getFromAccount() != null && accountService.isOwner(transaction.getFromAccount(), userId))
+                || (transaction.getToAccount() != null && accountService.isOwner(transaction.getToAccount(), userId));
+    }
 }
@@ -0,0 +1,29 @@
+package com.banking.dto;
+
+import com.banking.model.Account;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the account list view (no personal details)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummary {
+
+    private Long id;
+    private String accountNumber;
+    private String holderName;
+    private BigDecimal balance;
+    private LocalDateTime createdAt;
+
+    public static AccountSummary from(Account account) {
+        return new AccountSummary(account.getId(), account.getAccountNumber(),
+                account.getHolderName(), account.getBalance(), account.getCreatedAt());
+    }
+}
@@ -0,0 +1,23 @@
+package com.banking.dto;
+
+import com.banking.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for the dashboard: a user's accounts and the latest transactions of each
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Dashboard {
+
+    private Long userId;
+    private List<AccountSummary> accounts;
+    // Keyed by account number, newest first; every account has an entry
+    private Map<String, List<Transaction>> recentTransactions;
+}
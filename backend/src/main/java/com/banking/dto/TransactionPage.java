@@ -0,0 +1,22 @@
+package com.banking.dto;
+
+import com.banking.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one page of transaction history
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+
+    private List<Transaction> transactions;
+
+    // Opaque cursor for the next page, null when there are no more rows
+    private String next;
+}
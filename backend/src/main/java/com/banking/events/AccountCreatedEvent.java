@@ -0,0 +1,9 @@
+package com.banking.events;
+
+import com.banking.dto.AccountSummary;
+
+/**
+ * Published by AccountService when a user opens an account
+ */
+public record AccountCreatedEvent(Long userId, AccountSummary account) {
+}
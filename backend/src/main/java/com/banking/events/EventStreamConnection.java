@@ -0,0 +1,105 @@
+package com.banking.events;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One open event stream. Messages wait in a bounded buffer and are written by at most
+ * one task at a time, so a slow client only ever holds up itself.
+ */
+class EventStreamConnection {
+
+    /**
+     * A named event, or a comment line when {@code name} is null
+     */
+    record Message(String name, Object data) {
+    }
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final Queue<Message> buffer;
+    private final Executor sender;
+    private final Consumer<EventStreamConnection> onClose;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param onClose called once, whichever way the stream ends; the emitter's own completion
+     *                callback does not fire reliably after a client disconnects
+     */
+    EventStreamConnection(Long userId, SseEmitter emitter, int bufferSize, Executor sender,
+                          Consumer<EventStreamConnection> onClose) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.sender = sender;
+        this.onClose = onClose;
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Queue a message; returns false when the buffer is full
+     */
+    boolean offer(Message message) {
+        if (closed.get()) {
+            return true;
+        }
+        if (!buffer.offer(message)) {
+            return false;
+        }
+        if (sending.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+        return true;
+    }
+
+    /**
+     * End the stream; the client's EventSource reconnects on its own
+     */
+    void close() {
+        if (markClosed()) {
+            emitter.complete();
+        }
+    }
+
+    private void drain() {
+        try {
+            Message message;
+            while (!closed.get() && (message = buffer.poll()) != null) {
+                if (message.name() == null) {
+                    emitter.send(SseEmitter.event().comment(String.valueOf(message.data())));
+                } else {
+                    emitter.send(SseEmitter.event().name(message.name()).data(message.data()));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            if (markClosed()) {
+                emitter.completeWithError(e);
+            }
+        } finally {
+            sending.set(false);
+            if (!closed.get() && !buffer.isEmpty() && sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+    }
+
+    private boolean markClosed() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        buffer.clear();
+        onClose.accept(this);
+        return true;
+    }
+}
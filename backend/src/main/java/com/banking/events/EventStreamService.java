@@ -0,0 +1,187 @@
+package com.banking.events;
+
+import com.banking.dto.AccountSummary;
+import com.banking.model.Transaction;
+import com.banking.service.AccountService;
+import com.banking.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes balance changes and new transactions to open dashboards over Server-Sent Events.
+ *
+ * Postings are picked up after commit and fanned out on virtual threads, so the posting
+ * request only pays for a map lookup. Each connection has a bounded buffer; a client that
+ * falls that far behind is disconnected and resynchronises when its EventSource reconnects.
+ */
+@Service
+public class EventStreamService {
+
+    private static final String HEARTBEAT = "heartbeat";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserService userService;
+
+    private final Map<Long, Set<EventStreamConnection>> connectionsByUser = new ConcurrentHashMap<>();
+    // Owner of every account that has at least one open stream
+    private final Map<String, Long> watchedAccounts = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("event-stream-", 0).factory());
+
+    private final Duration timeout;
+    private final int bufferSize;
+    private final Counter published;
+    private final Counter overflows;
+
+    public EventStreamService(MeterRegistry meterRegistry,
+                              @Value("${banking.events.timeout:30m}") Duration timeout,
+                              @Value("${banking.events.buffer-size:100}") int bufferSize) {
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        meterRegistry.gauge("banking.events.connections", connections);
+        this.published = meterRegistry.counter("banking.events.messages");
+        this.overflows = meterRegistry.counter("banking.events.overflows");
+    }
+
+    /**
+     * Open a stream for a user
+     */
+    public SseEmitter subscribe(Long userId) {
+        userService.getUserById(userId);
+        List<AccountSummary> accounts = accountService.getAccountSummariesByUserId(userId);
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        EventStreamConnection connection = new EventStreamConnection(userId, emitter, bufferSize, sender, this::unregister);
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(error -> connection.close());
+
+        // Registered under the user's map entry so a concurrent last disconnect cannot unwatch them
+        connectionsByUser.compute(userId, (key, open) -> {
+            Set<EventStreamConnection> set = open != null ? open : new CopyOnWriteArraySet<>();
+            set.add(connection);
+            accounts.forEach(account -> watchedAccounts.put(account.getAccountNumber(), userId));
+            return set;
+        });
+        connections.incrementAndGet();
+
+        // Current balances first, so the client starts from a known state
+        accounts.forEach(account -> deliver(connection, "balance", balance(account.getAccountNumber(), account.getBalance())));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionPosted(TransactionPostedEvent event) {
+        Transaction transaction = event.transaction();
+        Set<String> accounts = new LinkedHashSet<>();
+        if (transaction.getFromAccount() != null) {
+            accounts.add(transaction.getFromAccount());
+        }
+        if (transaction.getToAccount() != null) {
+            accounts.add(transaction.getToAccount());
+        }
+        accounts.removeIf(account -> !watchedAccounts.containsKey(account));
+        if (accounts.isEmpty()) {
+            return;
+        }
+
+        sender.execute(() -> {
+            Set<Long> notified = new LinkedHashSet<>();
+            for (String account : accounts) {
+                Long userId = watchedAccounts.get(account);
+                if (userId == null) {
+                    continue;
+                }
+                if (notified.add(userId)) {
+                    publish(userId, "transaction", transaction);
+                }
+                publish(userId, "balance", balance(account, accountService.getBalance(account)));
+            }
+        });
+    }
+
+    @EventListener
+    public void onAccountCreated(AccountCreatedEvent event) {
+        Set<EventStreamConnection> open = connectionsByUser.computeIfPresent(event.userId(), (key, set) -> {
+            watchedAccounts.put(event.account().getAccountNumber(), key);
+            return set;
+        });
+        if (open != null) {
+            publish(event.userId(), "account", event.account());
+        }
+    }
+
+    /**
+     * Keep idle streams open through proxies and detect clients that have gone away
+     */
+    @Scheduled(fixedRateString = "${banking.events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        connectionsByUser.values().forEach(set -> set.forEach(connection ->
+                deliver(connection, null, HEARTBEAT)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        connectionsByUser.values().forEach(set -> set.forEach(EventStreamConnection::close));
+        sender.shutdown();
+    }
+
+    private void publish(Long userId, String name, Object data) {
+        Set<EventStreamConnection> open = connectionsByUser.get(userId);
+        if (open != null) {
+            open.forEach(connection -> deliver(connection, name, data));
+        }
+    }
+
+    private void deliver(EventStreamConnection connection, String name, Object data) {
+        if (connection.offer(new EventStreamConnection.Message(name, data))) {
+            if (name != null) {
+                published.increment();
+            }
+        } else {
+            overflows.increment();
+            connection.close();
+        }
+    }
+
+    private void unregister(EventStreamConnection connection) {
+        Long userId = connection.getUserId();
+        connectionsByUser.computeIfPresent(userId, (key, set) -> {
+            if (set.remove(connection)) {
+                connections.decrementAndGet();
+            }
+            if (!set.isEmpty()) {
+                return set;
+            }
+            watchedAccounts.values().removeIf(userId::equals);
+            return null;
+        });
+    }
+
+    private static Map<String, Object> balance(String accountNumber, Object balance) {
+        return Map.of("accountNumber", accountNumber, "balance", balance);
+    }
+}
@@ -0,0 +1,9 @@
+package com.banking.events;
+
+import com.banking.model.Transaction;
+
+/**
+ * Published by TransactionService for every successful posting; delivered after commit
+ */
+public record TransactionPostedEvent(Transaction transaction) {
+}
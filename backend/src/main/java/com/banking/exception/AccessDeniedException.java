@@ -0,0 +1,11 @@
+package com.banking.exception;
+
+/**
+ * Thrown when the logged-in user asks for something that belongs to another user
+ */
+public class AccessDeniedException extends RuntimeException {
+
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.banking.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a caller exceeds its request rate; carries how long to wait before retrying
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
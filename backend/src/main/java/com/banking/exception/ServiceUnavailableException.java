@@ -0,0 +1,15 @@
+package com.banking.exception;
+
+/**
+ * Thrown when a bounded resource is saturated and the request should be retried later
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
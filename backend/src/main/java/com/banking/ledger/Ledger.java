@@ -0,0 +1,216 @@
+package com.banking.ledger;
+
+import com.banking.exception.ResourceNotFoundException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory account balances backed by a {@link LedgerJournal} and periodic {@link LedgerSnapshot}s.
+ *
+ * Postings are serialised: each one checks funds against memory, is appended to the
+ * journal and only then applied, so memory never runs ahead of the journal. Balance
+ * reads are lock-free. Restart cost is loading the newest snapshot and replaying the
+ * journal records after it.
+ */
+public class Ledger implements Closeable {
+
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final Path directory;
+    private final LedgerJournal journal;
+    private final Consumer<LedgerEntry> sink;
+    private final Map<String, Long> balances = new ConcurrentHashMap<>();
+    private final Object snapshotLock = new Object();
+
+    private long lastSequence = -1;
+    private long snapshotSequence = -1;
+
+    /**
+     * @param sink receives every journaled record in sequence order, while postings are
+     *             serialised: replayed records the database has not seen, then each new one.
+     *             It runs under the ledger lock, so it must not block on new records
+     */
+    public Ledger(Path directory, int segmentSize, boolean forceOnAppend, Consumer<LedgerEntry> sink) throws IOException {
+        this.directory = directory;
+        this.journal = new LedgerJournal(directory, segmentSize, forceOnAppend);
+        this.sink = sink;
+    }
+
+    /**
+     * Restore balances from the newest valid snapshot plus the journal tail.
+     *
+     * @param persistedSequence last sequence already written to the database; records after
+     *                          it are handed to the sink again
+     * @param initialBalances   opening balances (in cents) when no snapshot exists yet; they become
+     *                          the first snapshot, at {@code persistedSequence}
+     */
+    public synchronized void recover(long persistedSequence,
+                                     Supplier<Map<String, Long>> initialBalances) throws IOException {
+        LedgerSnapshot snapshot = LedgerSnapshot.loadLatest(directory);
+        if (snapshot == null) {
+            if (journal.hasSegments()) {
+                throw new IllegalStateException("Ledger journal found in " + directory + " without a snapshot");
+            }
+            snapshot = new LedgerSnapshot(persistedSequence, new HashMap<>(initialBalances.get()));
+            snapshot.write(directory);
+        }
+        balances.putAll(snapshot.getBalances());
+
+        long snapshotAt = snapshot.getSequence();
+        journal.recover(Math.min(snapshotAt, persistedSequence), entry -> {
+            if (entry.sequence() > snapshotAt) {
+                apply(entry);
+            }
+            if (entry.sequence() > persistedSequence) {
+                sink.accept(entry);
+            }
+        });
+
+        snapshotSequence = snapshot.getSequence();
+        lastSequence = Math.max(snapshotSequence, journal.getLastSequence());
+        if (lastSequence < persistedSequence) {
+            throw new IllegalStateException("Ledger in " + directory + " ends at sequence " + lastSequence
+                    + " but the database already holds " + persistedSequence);
+        }
+    }
+
+    /**
+     * Register a new account with its opening balance
+     */
+    public synchronized LedgerEntry open(String accountNumber, long balance) throws IOException {
+        if (balances.containsKey(accountNumber)) {
+            throw new IllegalArgumentException("Account already in the ledger: " + accountNumber);
+        }
+        if (balance < 0) {
+            throw new IllegalArgumentException("Initial balance cannot be negative");
+        }
+        return append(LedgerEntry.Type.OPEN, null, accountNumber, balance, null, null);
+    }
+
+    /**
+     * Post a deposit, withdrawal or transfer.
+     *
+     * @return the journaled record, or null when the debited account lacks funds
+     */
+    public LedgerEntry post(LedgerEntry.Type type, String fromAccount, String toAccount,
+                            long amount, String description) throws IOException {
+        return post(type, fromAccount, toAccount, amount, description, null);
+    }
+
+    /**
+     * Post a deposit, withdrawal or transfer made under an Idempotency-Key, which is
+     * journaled with the record
+     *
+     * @return the journaled record, or null when the debited account lacks funds
+     */
+    public synchronized LedgerEntry post(LedgerEntry.Type type, String fromAccount, String toAccount,
+                                         long amount, String description,
+                                         LedgerEntry.RequestKey requestKey) throws IOException {
+        if (type == LedgerEntry.Type.OPEN) {
+            throw new IllegalArgumentException("Use open() to register accounts");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (type != LedgerEntry.Type.WITHDRAW) {
+            requireAccount(toAccount);
+        }
+        if (type != LedgerEntry.Type.DEPOSIT && requireAccount(fromAccount) < amount) {
+            return null;
+        }
+        return append(type, fromAccount, toAccount, amount, description, requestKey);
+    }
+
+    /**
+     * Current balance in cents, or null for an unknown account
+     */
+    public Long balance(String accountNumber) {
+        return balances.get(accountNumber);
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Write a snapshot of the current balances if anything changed since the last one.
+     * Postings are only blocked while the balances are copied.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            Map<String, Long> copy;
+            long sequence;
+            synchronized (this) {
+                if (lastSequence == snapshotSequence) {
+                    return;
+                }
+                journal.force();
+                copy = new HashMap<>(balances);
+                sequence = lastSequence;
+            }
+            new LedgerSnapshot(sequence, copy).write(directory);
+            LedgerSnapshot.retainNewest(directory, SNAPSHOTS_KEPT);
+            synchronized (this) {
+                snapshotSequence = sequence;
+            }
+        }
+    }
+
+    /**
+     * Delete journal segments that are covered by every kept snapshot and already persisted
+     */
+    public synchronized void releaseJournal(long persistedSequence) throws IOException {
+        long oldestSnapshot = LedgerSnapshot.oldestSequence(directory);
+        journal.deleteThrough(Math.min(persistedSequence, oldestSnapshot));
+    }
+
+    /**
+     * Whether recovery had to cut off a torn journal tail
+     */
+    public boolean recoveredFromTornTail() {
+        return journal.wasTruncated();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        journal.close();
+    }
+
+    private LedgerEntry append(LedgerEntry.Type type, String fromAccount, String toAccount,
+                               long amount, String description, LedgerEntry.RequestKey requestKey) throws IOException {
+        LedgerEntry entry = new LedgerEntry(lastSequence + 1, type, fromAccount, toAccount,
+                amount, System.currentTimeMillis(), description, requestKey);
+        journal.append(entry);
+        apply(entry);
+        lastSequence = entry.sequence();
+        sink.accept(entry);
+        return entry;
+    }
+
+    private long requireAccount(String accountNumber) {
+        Long balance = accountNumber == null ? null : balances.get(accountNumber);
+        if (balance == null) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+        return balance;
+    }
+
+    private void apply(LedgerEntry entry) {
+        switch (entry.type()) {
+            case OPEN -> balances.put(entry.toAccount(), entry.amount());
+            case DEPOSIT -> balances.merge(entry.toAccount(), entry.amount(), Long::sum);
+            case WITHDRAW -> balances.merge(entry.fromAccount(), -entry.amount(), Long::sum);
+            case TRANSFER -> {
+                balances.merge(entry.fromAccount(), -entry.amount(), Long::sum);
+                balances.merge(entry.toAccount(), entry.amount(), Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.banking.ledger;
+
+/**
+ * One journaled ledger record. Amounts are in minor units (cents).
+ *
+ * OPEN carries the opening balance of {@code toAccount}; the other types mirror
+ * {@link com.banking.model.Transaction.TransactionType}.
+ *
+ * The transaction row of a posting gets an id derived from its sequence, in a range the
+ * pooled transactions_seq generator never reaches, so no id has to be fetched from the
+ * database while posting and switching modes cannot collide.
+ *
+ * A posting made under an Idempotency-Key carries that key ({@code requestKey}, otherwise
+ * null), so a retry can find it in the journal before the database writer has caught up,
+ * and the writer records the key with the transaction row.
+ */
+public record LedgerEntry(long sequence,
+                          Type type,
+                          String fromAccount,
+                          String toAccount,
+                          long amount,
+                          long timestamp,
+                          String description,
+                          RequestKey requestKey) {
+
+    // 2^52: far above any sequence-generated id, still exact as a JSON/JavaScript number
+    public static final long TRANSACTION_ID_BASE = 1L << 52;
+
+    public enum Type {
+        OPEN,
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER
+    }
+
+    /**
+     * Id of the transactions row written for this record
+     */
+    public long transactionId() {
+        return TRANSACTION_ID_BASE + sequence;
+    }
+
+    /**
+     * Idempotency-Key a posting was made under: the user who sent it, the key and the
+     * fingerprint of the request
+     */
+    public record RequestKey(long userId, String key, String fingerprint) {
+    }
+}
@@ -0,0 +1,329 @@
+package com.banking.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of {@link LedgerEntry} records in fixed-size memory-mapped segment files.
+ *
+ * Record layout: int payload length, int CRC32 of the payload, payload. The length is
+ * written last, so a record interrupted by a crash is either invisible (length 0) or
+ * fails its checksum. Segment files are named after the first sequence they hold.
+ *
+ * Not thread-safe; the owning {@link Ledger} serialises access.
+ */
+public class LedgerJournal implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    // sequence, type, amount, timestamp and three string lengths
+    private static final int MIN_PAYLOAD_BYTES = 8 + 1 + 8 + 8 + 2 + 2 + 2;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceOnAppend;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long lastSequence = -1;
+    private boolean recovered;
+    private boolean truncated;
+
+    public LedgerJournal(Path directory, int segmentSize, boolean forceOnAppend) throws IOException {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("Journal segment size must be at least 4096 bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceOnAppend = forceOnAppend;
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(LedgerJournal::isSegment)
+                    .map(path -> new Segment(path, firstSequenceOf(path)))
+                    .sorted((a, b) -> Long.compare(a.firstSequence, b.firstSequence))
+                    .forEach(segments::add);
+        }
+    }
+
+    /**
+     * Read every intact record, hand those after {@code afterSequence} to the consumer and
+     * position the journal for appending. A torn or corrupt record at the tail of the last
+     * segment is zeroed along with everything after it; corruption anywhere else fails.
+     *
+     * @return sequence of the last intact record, or -1 if the journal is empty
+     */
+    public long recover(long afterSequence, Consumer<LedgerEntry> consumer) throws IOException {
+        if (recovered) {
+            throw new IllegalStateException("Journal already recovered");
+        }
+        if (!segments.isEmpty() && segments.get(0).firstSequence > afterSequence + 1) {
+            throw new IllegalStateException("Journal starts at sequence " + segments.get(0).firstSequence
+                    + " but replay needs everything after " + afterSequence);
+        }
+
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            boolean active = i == segments.size() - 1;
+            try (FileChannel file = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer map = file.map(FileChannel.MapMode.READ_WRITE, 0,
+                        active ? Math.max(segmentSize, file.size()) : file.size());
+                int end = scan(segment, map, afterSequence, consumer);
+
+                if (end >= 0) {
+                    if (!active) {
+                        throw new IllegalStateException("Corrupt record in " + segment.path.getFileName()
+                                + " at offset " + end + ", which is not the journal tail");
+                    }
+                    // Zero the torn tail so stale bytes can never be mistaken for later records
+                    for (int p = end; p < map.capacity(); p++) {
+                        map.put(p, (byte) 0);
+                    }
+                    map.force();
+                    map.position(end);
+                    truncated = true;
+                }
+                if (active) {
+                    // The mapping stays valid after the channel is closed
+                    buffer = map;
+                }
+            }
+        }
+        recovered = true;
+        return lastSequence;
+    }
+
+    /**
+     * Append a record; its sequence must follow the last one
+     */
+    public void append(LedgerEntry entry) throws IOException {
+        if (!recovered) {
+            throw new IllegalStateException("Journal must be recovered before appending");
+        }
+        if (lastSequence >= 0 && entry.sequence() != lastSequence + 1) {
+            throw new IllegalArgumentException("Expected sequence " + (lastSequence + 1) + " but got " + entry.sequence());
+        }
+
+        byte[] payload = encode(entry);
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Ledger record of " + size + " bytes exceeds the segment size");
+        }
+        if (buffer == null || buffer.remaining() < size) {
+            roll(entry.sequence());
+        }
+
+        int position = buffer.position();
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, crc(ByteBuffer.wrap(payload)));
+        buffer.putInt(position, payload.length);
+        buffer.position(position + size);
+        if (forceOnAppend) {
+            buffer.force(position, size);
+        }
+        lastSequence = entry.sequence();
+    }
+
+    /**
+     * Flush appended records to the file
+     */
+    public void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Delete whole segments whose records all have a sequence at or below the given one.
+     * The active segment is always kept.
+     */
+    public void deleteThrough(long sequence) throws IOException {
+        while (segments.size() > 1 && segments.get(1).firstSequence - 1 <= sequence) {
+            Files.deleteIfExists(segments.remove(0).path);
+        }
+    }
+
+    public boolean hasSegments() {
+        return !segments.isEmpty();
+    }
+
+    /**
+     * Whether the last recovery cut off a torn or corrupt tail
+     */
+    public boolean wasTruncated() {
+        return truncated;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        buffer = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Walk the records of one segment.
+     *
+     * @return offset of the first bad record, or -1 if the segment ends cleanly
+     */
+    private int scan(Segment segment, MappedByteBuffer map, long afterSequence, Consumer<LedgerEntry> consumer) {
+        int position = 0;
+        boolean first = true;
+        while (map.capacity() - position >= HEADER_BYTES) {
+            int length = map.getInt(position);
+            if (length == 0) {
+                map.position(position);
+                return -1;
+            }
+            if (length < MIN_PAYLOAD_BYTES || length > map.capacity() - position - HEADER_BYTES) {
+                return position;
+            }
+            ByteBuffer payload = map.slice(position + HEADER_BYTES, length);
+            if (crc(payload.duplicate()) != map.getInt(position + 4)) {
+                return position;
+            }
+
+            LedgerEntry entry;
+            try {
+                entry = decode(payload);
+            } catch (RuntimeException e) {
+                return position;
+            }
+            long expected = lastSequence >= 0 ? lastSequence + 1 : segment.firstSequence;
+            if (entry.sequence() != expected || (first && entry.sequence() != segment.firstSequence)) {
+                return position;
+            }
+
+            if (entry.sequence() > afterSequence) {
+                consumer.accept(entry);
+            }
+            lastSequence = entry.sequence();
+            first = false;
+            position += HEADER_BYTES + length;
+        }
+        map.position(position);
+        return -1;
+    }
+
+    private void roll(long firstSequence) throws IOException {
+        close();
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segments.add(new Segment(path, firstSequence));
+    }
+
+    private static byte[] encode(LedgerEntry entry) {
+        byte[] from = bytes(entry.fromAccount());
+        byte[] to = bytes(entry.toAccount());
+        byte[] description = bytes(entry.description());
+        LedgerEntry.RequestKey requestKey = entry.requestKey();
+        byte[] key = requestKey == null ? null : bytes(requestKey.key());
+        byte[] fingerprint = requestKey == null ? null : bytes(requestKey.fingerprint());
+        int keyBytes = requestKey == null ? 0 : 8 + 2 + length(key) + 2 + length(fingerprint);
+        ByteBuffer out = ByteBuffer.allocate(MIN_PAYLOAD_BYTES + length(from) + length(to) + length(description) + keyBytes);
+        out.putLong(entry.sequence());
+        out.put((byte) entry.type().ordinal());
+        out.putLong(entry.amount());
+        out.putLong(entry.timestamp());
+        putString(out, from);
+        putString(out, to);
+        putString(out, description);
+        // Optional trailing fields: records without a key read as before
+        if (requestKey != null) {
+            out.putLong(requestKey.userId());
+            putString(out, key);
+            putString(out, fingerprint);
+        }
+        return out.array();
+    }
+
+    private static LedgerEntry decode(ByteBuffer in) {
+        long sequence = in.getLong();
+        LedgerEntry.Type type = LedgerEntry.Type.values()[in.get()];
+        long amount = in.getLong();
+        long timestamp = in.getLong();
+        String from = getString(in);
+        String to = getString(in);
+        String description = getString(in);
+        LedgerEntry.RequestKey requestKey = null;
+        if (in.hasRemaining()) {
+            long userId = in.getLong();
+            requestKey = new LedgerEntry.RequestKey(userId, getString(in), getString(in));
+        }
+        if (in.hasRemaining()) {
+            throw new IllegalStateException("Trailing bytes in ledger record");
+        }
+        return new LedgerEntry(sequence, type, from, to, amount, timestamp, description, requestKey);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer out, byte[] value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        if (value.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Ledger string field too long");
+        }
+        out.putShort((short) value.length);
+        out.put(value);
+    }
+
+    private static String getString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        in.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private record Segment(Path path, long firstSequence) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.banking.ledger;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.exception.ResourceNotFoundException;
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.banking.repository.AccountBalanceView;
+import com.banking.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ledger engine beneath TransactionService (banking.ledger.enabled=true).
+ *
+ * Balances and funds checks are served from the in-memory {@link Ledger}; every posting is
+ * journaled before it is acknowledged and copied to the relational tables by
+ * {@link LedgerWriter}. The ledger assumes it is the only writer of balances, so it must
+ * run on a single node, and a ledger directory left over from an earlier enabled period
+ * has to be deleted before re-enabling it.
+ *
+ * Postings made under an Idempotency-Key journal the key and are kept findable by it until
+ * the writer has copied them, key row included, to the database.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.ledger.enabled", havingValue = "true")
+public class LedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Value("${banking.ledger.directory:./data/ledger}")
+    private Path directory;
+
+    @Value("${banking.ledger.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${banking.ledger.force-on-append:false}")
+    private boolean forceOnAppend;
+
+    private Ledger ledger;
+    private boolean recovered;
+
+    // Keyed postings the database may not have yet, by user id and key
+    private final ConcurrentMap<UserKey, LedgerEntry> unpersistedKeys = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() throws IOException {
+        long started = System.nanoTime();
+        // New records go into room reserved before the posting; replayed ones wait for it
+        ledger = new Ledger(directory, Math.toIntExact(segmentSize.toBytes()), forceOnAppend, entry -> {
+            if (entry.requestKey() != null) {
+                unpersistedKeys.put(new UserKey(entry.requestKey().userId(), entry.requestKey().key()), entry);
+            }
+            if (recovered) {
+                ledgerWriter.enqueue(entry);
+            } else {
+                ledgerWriter.replay(entry);
+            }
+        });
+        ledger.recover(ledgerWriter.getPersistedSequence(), this::loadBalances);
+        openMissingAccounts();
+        recovered = true;
+
+        if (ledger.recoveredFromTornTail()) {
+            log.warn("Ledger journal in {} ended in a torn record, which was discarded", directory);
+        }
+        log.info("Ledger recovered to sequence {} in {} ms", ledger.getLastSequence(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Snapshot and close the journal on shutdown
+     */
+    @PreDestroy
+    void stop() throws IOException {
+        ledger.snapshot();
+        ledger.close();
+    }
+
+    /**
+     * Post a deposit, withdrawal or transfer, journaling the Idempotency-Key it was sent
+     * with (null without one).
+     * Returns null when the debited account lacks funds; throws ServiceUnavailableException
+     * when the database writer is too far behind to take the record.
+     */
+    public Transaction post(Transaction.TransactionType type, TransactionRequest request, String defaultDescription,
+                            LedgerEntry.RequestKey requestKey) {
+        String fromAccount = type == Transaction.TransactionType.DEPOSIT ? null : request.getAccountNumber();
+        String toAccount = switch (type) {
+            case DEPOSIT -> request.getAccountNumber();
+            case WITHDRAW -> null;
+            case TRANSFER -> request.getToAccountNumber();
+        };
+        String description = request.getDescription() != null ? request.getDescription() : defaultDescription;
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            description = description.substring(0, MAX_DESCRIPTION_LENGTH);
+        }
+
+        long amount = toCents(request.getAmount());
+        ledgerWriter.reserve();
+        LedgerEntry entry = null;
+        try {
+            entry = ledger.post(LedgerEntry.Type.valueOf(type.name()), fromAccount, toAccount, amount, description,
+                    requestKey);
+            return entry == null ? null : toTransaction(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ledger journal write failed", e);
+        } finally {
+            if (entry == null) {
+                ledgerWriter.release();
+            }
+        }
+    }
+
+    /**
+     * Register a newly created account with its opening balance
+     */
+    public void openAccount(Account account) {
+        long balance = toCents(account.getBalance());
+        ledgerWriter.reserve();
+        LedgerEntry entry = null;
+        try {
+            entry = ledger.open(account.getAccountNumber(), balance);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ledger journal write failed", e);
+        } finally {
+            if (entry == null) {
+                ledgerWriter.release();
+            }
+        }
+    }
+
+    /**
+     * Current balance from memory
+     */
+    public BigDecimal getBalance(String accountNumber) {
+        Long cents = ledger.balance(accountNumber);
+        if (cents == null) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Posting made under the user's Idempotency-Key that the database writer has not
+     * copied yet, or null. Look here before the idempotency_keys table: a posting leaves
+     * this map only after its key row has been committed.
+     */
+    public LedgerEntry findUnpersisted(long userId, String key) {
+        return unpersistedKeys.get(new UserKey(userId, key));
+    }
+
+    /**
+     * Snapshot balances and drop journal segments and keyed postings that are no longer needed
+     */
+    @Scheduled(fixedDelayString = "${banking.ledger.snapshot-interval:PT1M}",
+            initialDelayString = "${banking.ledger.snapshot-interval:PT1M}")
+    public void snapshot() throws IOException {
+        long persistedSequence = ledgerWriter.getPersistedSequence();
+        unpersistedKeys.values().removeIf(entry -> entry.sequence() <= persistedSequence);
+        ledger.snapshot();
+        ledger.releaseJournal(persistedSequence);
+    }
+
+    /**
+     * Open accounts whose row was committed but whose opening never reached the journal,
+     * e.g. after a crash between the two
+     */
+    private void openMissingAccounts() throws IOException {
+        int opened = 0;
+        for (AccountBalanceView account : accountRepository.findBalancesBy()) {
+            if (ledger.balance(account.getAccountNumber()) == null) {
+                ledger.open(account.getAccountNumber(), toCents(account.getBalance()));
+                opened++;
+            }
+        }
+        if (opened > 0) {
+            log.warn("Opened {} accounts missing from the ledger", opened);
+        }
+    }
+
+    private Map<String, Long> loadBalances() {
+        Map<String, Long> balances = new HashMap<>();
+        for (AccountBalanceView account : accountRepository.findBalancesBy()) {
+            balances.put(account.getAccountNumber(), toCents(account.getBalance()));
+        }
+        return balances;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is out of range");
+        }
+    }
+
+    /**
+     * The transaction a journaled posting stands for, as its row will be written
+     */
+    public static Transaction toTransaction(LedgerEntry entry) {
+        Transaction transaction = new Transaction();
+        transaction.setId(entry.transactionId());
+        transaction.setType(Transaction.TransactionType.valueOf(entry.type().name()));
+        transaction.setAmount(BigDecimal.valueOf(entry.amount(), 2));
+        transaction.setFromAccount(entry.fromAccount());
+        transaction.setToAccount(entry.toAccount());
+        transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
+        transaction.setTransactionDate(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestamp()), ZoneId.systemDefault()));
+        transaction.setDescription(entry.description());
+        return transaction;
+    }
+
+    private record UserKey(long userId, String key) {
+    }
+}
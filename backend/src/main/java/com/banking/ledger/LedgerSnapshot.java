@@ -0,0 +1,157 @@
+package com.banking.ledger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Point-in-time copy of all ledger balances, tagged with the last journal sequence it includes.
+ *
+ * File layout: magic, version, sequence, account count, (account, balance) pairs and a
+ * trailing CRC32 of everything before it. Files are written to a temporary name and moved
+ * into place, so a crash never leaves a half-written snapshot under a valid name.
+ */
+final class LedgerSnapshot {
+
+    private static final int MAGIC = 0x4C534E50; // "LSNP"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final long sequence;
+    private final Map<String, Long> balances;
+
+    LedgerSnapshot(long sequence, Map<String, Long> balances) {
+        this.sequence = sequence;
+        this.balances = balances;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Map<String, Long> getBalances() {
+        return balances;
+    }
+
+    /**
+     * Write the snapshot durably into the directory
+     */
+    void write(Path directory) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(balances.size());
+            for (Map.Entry<String, Long> balance : balances.entrySet()) {
+                out.writeUTF(balance.getKey());
+                out.writeLong(balance.getValue());
+            }
+            out.flush();
+
+            // Trailer goes straight to the channel so it is not part of its own checksum
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).flip());
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Newest snapshot that passes its checksum, or null if there is none
+     */
+    static LedgerSnapshot loadLatest(Path directory) throws IOException {
+        List<Path> files = list(directory);
+        for (int i = files.size() - 1; i >= 0; i--) {
+            LedgerSnapshot snapshot = read(files.get(i));
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sequence of the oldest snapshot on disk, or -1 if there is none
+     */
+    static long oldestSequence(Path directory) throws IOException {
+        List<Path> files = list(directory);
+        return files.isEmpty() ? -1 : sequenceOf(files.get(0));
+    }
+
+    /**
+     * Delete all but the newest {@code keep} snapshots
+     */
+    static void retainNewest(Path directory, int keep) throws IOException {
+        List<Path> files = list(directory);
+        for (int i = 0; i < files.size() - keep; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private static LedgerSnapshot read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                return null;
+            }
+            Map<String, Long> balances = new HashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (int i = 0; i < count; i++) {
+                balances.put(in.readUTF(), in.readLong());
+            }
+            long actual = crc.getValue();
+            if (in.readLong() != actual || in.read() != -1) {
+                return null;
+            }
+            return new LedgerSnapshot(sequence, balances);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(LedgerSnapshot::sequenceOf))
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,247 @@
+package com.banking.ledger;
+
+import com.banking.exception.ServiceUnavailableException;
+import com.banking.model.LedgerCheckpoint;
+import com.banking.model.Transaction;
+import com.banking.repository.LedgerCheckpointRepository;
+import com.banking.service.AccountActivityService;
+import com.banking.service.AccountCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies journaled postings into the transactions and accounts tables in the background.
+ *
+ * Each batch inserts its transaction rows and the idempotency keys they were posted under,
+ * applies the net balance change and activity totals per account and advances the
+ * ledger_checkpoint row in one database transaction, so after a crash the ledger replays
+ * exactly the records the database has not seen. A failed batch is retried until it
+ * succeeds; nothing is dropped.
+ *
+ * Postings reserve queue space with {@link #reserve()} before they take the ledger lock and
+ * hold it until their record is in the database. When the writer is a full queue's worth
+ * behind, e.g. during a database outage, reservations time out and postings fail with 503
+ * instead of piling up behind the ledger lock.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.ledger.enabled", havingValue = "true")
+public class LedgerWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerWriter.class);
+    private static final String CHECKPOINT = "ledger";
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LedgerCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private AccountActivityService activityService;
+
+    private final BlockingQueue<LedgerEntry> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final long reserveTimeoutNanos;
+    private final TransactionTemplate writeTransaction;
+    private final int batchSize;
+    private final Counter written;
+    private final Counter failures;
+
+    private volatile long persistedSequence = -1;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public LedgerWriter(PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${banking.ledger.writer.queue-capacity:100000}") int queueCapacity,
+                        @Value("${banking.ledger.writer.batch-size:500}") int batchSize,
+                        @Value("${banking.ledger.writer.reserve-timeout:500ms}") Duration reserveTimeout) {
+        this.capacity = new Semaphore(queueCapacity);
+        this.reserveTimeoutNanos = reserveTimeout.toNanos();
+        this.batchSize = batchSize;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+
+        meterRegistry.gauge("banking.ledger.writer.queue.depth", queue, BlockingQueue::size);
+        this.written = meterRegistry.counter("banking.ledger.writer.records");
+        this.failures = meterRegistry.counter("banking.ledger.writer.failures");
+    }
+
+    @PostConstruct
+    void start() {
+        persistedSequence = checkpointRepository.findById(CHECKPOINT)
+                .map(LedgerCheckpoint::getSequence)
+                .orElse(0L);
+        writer = Thread.ofPlatform().name("ledger-writer").daemon().start(this::drainLoop);
+    }
+
+    /**
+     * Drain what is queued; anything left over is replayed from the journal on the next start
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Last journal sequence already in the database
+     */
+    public long getPersistedSequence() {
+        return persistedSequence;
+    }
+
+    /**
+     * Reserve room for one record; waits up to banking.ledger.writer.reserve-timeout
+     *
+     * @throws ServiceUnavailableException when the writer stays a full queue's worth behind
+     */
+    public void reserve() {
+        try {
+            if (capacity.tryAcquire(reserveTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new ServiceUnavailableException("Postings are backed up, please try again shortly");
+    }
+
+    /**
+     * Give back a reservation that did not produce a record
+     */
+    public void release() {
+        capacity.release();
+    }
+
+    /**
+     * Queue a new record into the room reserved for it; never blocks
+     */
+    public void enqueue(LedgerEntry entry) {
+        queue.add(entry);
+    }
+
+    /**
+     * Queue a record replayed from the journal on start; waits for room as long as it takes
+     */
+    public void replay(LedgerEntry entry) {
+        capacity.acquireUninterruptibly();
+        queue.add(entry);
+    }
+
+    private void drainLoop() {
+        List<LedgerEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerEntry first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                while (!write(batch) && running) {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+                capacity.release(batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    private boolean write(List<LedgerEntry> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        List<Object[]> keys = new ArrayList<>();
+        List<Transaction> postings = new ArrayList<>(batch.size());
+        // Sorted so concurrent writers would lock accounts in the same order
+        Map<String, Long> deltas = new TreeMap<>();
+        for (LedgerEntry entry : batch) {
+            switch (entry.type()) {
+                case OPEN -> {
+                    // The account row was inserted before it was opened in the ledger
+                }
+                case DEPOSIT -> deltas.merge(entry.toAccount(), entry.amount(), Long::sum);
+                case WITHDRAW -> deltas.merge(entry.fromAccount(), -entry.amount(), Long::sum);
+                case TRANSFER -> {
+                    deltas.merge(entry.fromAccount(), -entry.amount(), Long::sum);
+                    deltas.merge(entry.toAccount(), entry.amount(), Long::sum);
+                }
+            }
+            if (entry.type() != LedgerEntry.Type.OPEN) {
+                postings.add(LedgerService.toTransaction(entry));
+                rows.add(new Object[] {
+                        entry.transactionId(),
+                        entry.type().name(),
+                        BigDecimal.valueOf(entry.amount(), 2),
+                        entry.fromAccount(),
+                        entry.toAccount(),
+                        Transaction.TransactionStatus.SUCCESS.name(),
+                        new Timestamp(entry.timestamp()),
+                        entry.description()
+                });
+            }
+            if (entry.requestKey() != null) {
+                keys.add(new Object[] {
+                        entry.requestKey().userId(),
+                        entry.requestKey().key(),
+                        entry.requestKey().fingerprint(),
+                        entry.transactionId(),
+                        new Timestamp(entry.timestamp())
+                });
+            }
+        }
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((account, delta) -> updates.add(new Object[] {BigDecimal.valueOf(delta, 2), account}));
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions "
+                        + "(id, type, amount, from_account, to_account, status, transaction_date, description) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                jdbcTemplate.batchUpdate("INSERT INTO idempotency_keys "
+                        + "(user_id, idempotency_key, fingerprint, transaction_id, created_at) VALUES (?, ?, ?, ?, ?)", keys);
+                jdbcTemplate.batchUpdate("UPDATE accounts SET balance = balance + ? WHERE account_number = ?", updates);
+                activityService.recordAll(postings);
+                checkpointRepository.save(new LedgerCheckpoint(CHECKPOINT, lastSequence));
+            });
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Failed to write ledger records up to sequence {}, retrying", lastSequence, e);
+            return false;
+        }
+
+        persistedSequence = lastSequence;
+        written.increment(batch.size());
+        deltas.keySet().forEach(accountCache::evict);
+        return true;
+    }
+}
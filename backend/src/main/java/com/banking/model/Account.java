@@ -1,5 +1,6 @@
 package com.banking.model;
 
+import com.banking.bloom.KeyFilterListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,14 +17,17 @@ import java.time.LocalDateTime;
  * Account Entity - Represents a bank account
  */
 @Entity
+@EntityListeners(KeyFilterListener.class)
 @Table(name = "accounts")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Account {
 
+    // Pooled sequence: ids are reserved in blocks so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Account number is required")
@@ -53,9 +57,10 @@ public class Account {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
-    // Many accounts belong to one user
+    // Many accounts belong to one user. No foreign key: with sharding, accounts live on
+    // other databases than the users table
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private User user;
 
@@ -63,4 +68,11 @@ public class Account {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
+
+    /**
+     * Detached copy of this account showing another balance (the entity is left alone)
+     */
+    public Account withBalance(BigDecimal newBalance) {
+        return new Account(id, accountNumber, holderName, newBalance, phone, address, dateOfBirth, createdAt, user);
+    }
 }
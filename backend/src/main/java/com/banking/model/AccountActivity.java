@@ -0,0 +1,26 @@
+package com.banking.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+
+/**
+ * AccountActivity Entity - Lifetime posting totals of one account, kept up to date by each posting
+ */
+@Entity
+@Table(name = "account_activity")
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class AccountActivity extends ActivityTotals {
+
+    @Id
+    @Column(name = "account_number", length = 20)
+    private String accountNumber;
+
+    public AccountActivity(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+}
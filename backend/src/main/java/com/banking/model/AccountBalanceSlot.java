@@ -0,0 +1,62 @@
+package com.banking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * AccountBalanceSlot Entity - One share of a striped account's balance.
+ *
+ * Deposits to a striped account land in a random slot instead of the account row; the
+ * account's balance is its own column plus every slot, until consolidation folds the
+ * slots back in. A slot also counts the deposits it took, all on {@code activityDate}.
+ */
+@Entity
+@Table(name = "account_balance_slots")
+@IdClass(AccountBalanceSlot.Key.class)
+@Data
+@NoArgsConstructor
+public class AccountBalanceSlot {
+
+    @Id
+    @Column(name = "account_number", length = 20)
+    private String accountNumber;
+
+    @Id
+    @Column(name = "slot")
+    private int slot;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Column(name = "deposit_count", nullable = false)
+    private long depositCount;
+
+    @Column(name = "deposit_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal depositAmount = BigDecimal.ZERO;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    public AccountBalanceSlot(String accountNumber, int slot, LocalDate activityDate) {
+        this.accountNumber = accountNumber;
+        this.slot = slot;
+        this.activityDate = activityDate;
+    }
+
+    /**
+     * Composite key: account number and slot
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private int slot;
+    }
+}
@@ -0,0 +1,46 @@
+package com.banking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * AccountDailyActivity Entity - Posting totals of one account on one day
+ */
+@Entity
+@Table(name = "account_daily_activity")
+@IdClass(AccountDailyActivity.Key.class)
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class AccountDailyActivity extends ActivityTotals {
+
+    @Id
+    @Column(name = "account_number", length = 20)
+    private String accountNumber;
+
+    @Id
+    @Column(name = "activity_date")
+    private LocalDate activityDate;
+
+    public AccountDailyActivity(String accountNumber, LocalDate activityDate) {
+        this.accountNumber = accountNumber;
+        this.activityDate = activityDate;
+    }
+
+    /**
+     * Composite key: account number and day
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private LocalDate activityDate;
+    }
+}
@@ -0,0 +1,26 @@
+package com.banking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+
+/**
+ * AccountNumberSequence Entity - Shared high-water mark for account number blocks
+ */
+@Entity
+@Table(name = "account_number_sequence")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountNumberSequence {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    // First value of the next unallocated block
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
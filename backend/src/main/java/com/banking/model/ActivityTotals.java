@@ -0,0 +1,98 @@
+package com.banking.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Running counts and amounts of successful postings, by type and direction
+ */
+@MappedSuperclass
+@Data
+@NoArgsConstructor
+public abstract class ActivityTotals {
+
+    @Column(name = "deposit_count", nullable = false)
+    private long depositCount;
+
+    @Column(name = "deposit_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal depositAmount = BigDecimal.ZERO;
+
+    @Column(name = "withdraw_count", nullable = false)
+    private long withdrawCount;
+
+    @Column(name = "withdraw_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal withdrawAmount = BigDecimal.ZERO;
+
+    @Column(name = "transfer_in_count", nullable = false)
+    private long transferInCount;
+
+    @Column(name = "transfer_in_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal transferInAmount = BigDecimal.ZERO;
+
+    @Column(name = "transfer_out_count", nullable = false)
+    private long transferOutCount;
+
+    @Column(name = "transfer_out_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal transferOutAmount = BigDecimal.ZERO;
+
+    /**
+     * Count one posting; {@code incoming} tells the two sides of a transfer apart
+     */
+    public void add(Transaction.TransactionType type, boolean incoming, BigDecimal amount) {
+        switch (type) {
+            case DEPOSIT -> {
+                depositCount++;
+                depositAmount = depositAmount.add(amount);
+            }
+            case WITHDRAW -> {
+                withdrawCount++;
+                withdrawAmount = withdrawAmount.add(amount);
+            }
+            case TRANSFER -> {
+                if (incoming) {
+                    transferInCount++;
+                    transferInAmount = transferInAmount.add(amount);
+                } else {
+                    transferOutCount++;
+                    transferOutAmount = transferOutAmount.add(amount);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add another set of totals to this one
+     */
+    public void add(ActivityTotals other) {
+        depositCount += other.depositCount;
+        depositAmount = depositAmount.add(other.depositAmount);
+        withdrawCount += other.withdrawCount;
+        withdrawAmount = withdrawAmount.add(other.withdrawAmount);
+        transferInCount += other.transferInCount;
+        transferInAmount = transferInAmount.add(other.transferInAmount);
+        transferOutCount += other.transferOutCount;
+        transferOutAmount = transferOutAmount.add(other.transferOutAmount);
+    }
+
+    public BigDecimal getTotalIn() {
+        return depositAmount.add(transferInAmount);
+    }
+
+    public BigDecimal getTotalOut() {
+        return withdrawAmount.add(transferOutAmount);
+    }
+
+    public Map<Transaction.TransactionType, Long> getTransactionCounts() {
+        Map<Transaction.TransactionType, Long> counts = new EnumMap<>(Transaction.TransactionType.class);
+        counts.put(Transaction.TransactionType.DEPOSIT, depositCount);
+        counts.put(Transaction.TransactionType.WITHDRAW, withdrawCount);
+        counts.put(Transaction.TransactionType.TRANSFER, transferInCount + transferOutCount);
+        return counts;
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * IdempotencyKey Entity - Records which transaction a client-supplied Idempotency-Key produced.
+ * Keys are scoped to the user who sent them, so two users may pick the same key.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_created_at", columnList = "created_at")
+})
+@IdClass(IdempotencyKey.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String key;
+
+    // Hash of the operation and request fields the key was first used with
+    @Column(nullable = false, length = 32)
+    private String fingerprint;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Composite key: user id and the key they sent
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private String key;
+    }
+}
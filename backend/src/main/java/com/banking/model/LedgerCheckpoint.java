@@ -0,0 +1,25 @@
+package com.banking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+
+/**
+ * LedgerCheckpoint Entity - Last ledger journal sequence already written to the relational tables
+ */
+@Entity
+@Table(name = "ledger_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private Long sequence;
+}
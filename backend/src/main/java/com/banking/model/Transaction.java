@@ -13,14 +13,22 @@ import java.time.LocalDateTime;
  * Transaction Entity - Represents a financial transaction
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_from_account_date_id", columnList = "from_account, transaction_date, id"),
+        @Index(name = "idx_to_account_date_id", columnList = "to_account, transaction_date, id"),
+        @Index(name = "idx_transaction_date", columnList = "transaction_date"),
+        // Finds the few transfers still PENDING without scanning the rest
+        @Index(name = "idx_status_date", columnList = "status, transaction_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
 
+    // Pooled sequence: ids are reserved in blocks so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -0,0 +1,51 @@
+package com.banking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * TransactionAudit Entity - Append-only record of a rejected transaction attempt
+ */
+@Entity
+@Table(name = "transaction_audit", indexes = {
+        @Index(name = "idx_audit_from_account_attempted", columnList = "from_account, attempted_at"),
+        @Index(name = "idx_audit_attempted_at", columnList = "attempted_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAudit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_audit_seq")
+    @SequenceGenerator(name = "transaction_audit_seq", sequenceName = "transaction_audit_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Transaction.TransactionType type;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "from_account", length = 20)
+    private String fromAccount;
+
+    @Column(name = "to_account", length = 20)
+    private String toAccount;
+
+    // Why the attempt was rejected
+    @Column(nullable = false)
+    private String reason;
+
+    private String description;
+
+    // When the attempt was rejected, not when the row was written
+    @Column(name = "attempted_at", nullable = false)
+    private LocalDateTime attemptedAt;
+}
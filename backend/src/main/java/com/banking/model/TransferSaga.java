@@ -0,0 +1,63 @@
+package com.banking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * TransferSaga Entity - Progress of a transfer between accounts on different shards.
+ *
+ * The source shard keeps the row that drives the transfer (DEBITED, then COMPLETED or
+ * COMPENSATED); the destination shard keeps a CREDITED row under the same id as proof
+ * that its side has been applied.
+ */
+@Entity
+@Table(name = "transfer_sagas", indexes = {
+        @Index(name = "idx_transfer_saga_state_updated", columnList = "state, updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferSaga {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "from_account", nullable = false, length = 20)
+    private String fromAccount;
+
+    @Column(name = "to_account", nullable = false, length = 20)
+    private String toAccount;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    // The transaction row on this row's shard
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private State state;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Saga States
+     */
+    public enum State {
+        DEBITED,
+        CREDITED,
+        COMPLETED,
+        COMPENSATED
+    }
+}
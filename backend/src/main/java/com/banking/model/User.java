@@ -1,5 +1,6 @@
 package com.banking.model;
 
+import com.banking.bloom.KeyFilterListener;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,14 +16,17 @@ import java.util.List;
  * User Entity - Represents a registered user in the banking system
  */
 @Entity
+@EntityListeners(KeyFilterListener.class)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
+    // Pooled sequence: ids are reserved in blocks so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Username is required")
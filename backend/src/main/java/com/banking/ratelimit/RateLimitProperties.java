@@ -0,0 +1,63 @@
+package com.banking.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate limits per endpoint (banking.rate-limit.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "banking.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Buckets untouched for this long are dropped (a dropped bucket is a full one)
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Upper bound on buckets kept in memory across all endpoints and keys
+     */
+    private long maxBuckets = 100_000;
+
+    /**
+     * Limits by endpoint name (deposit, withdraw, transfer); endpoints without an entry are not limited
+     */
+    private Map<String, EndpointLimits> endpoints = new HashMap<>();
+
+    @Data
+    public static class EndpointLimits {
+
+        /**
+         * Per authenticated user
+         */
+        private Limit user;
+
+        /**
+         * Per account the request acts on
+         */
+        private Limit account;
+    }
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Sustained requests per second
+         */
+        private double rate;
+
+        /**
+         * Requests allowed at once after an idle period
+         */
+        private int burst = 1;
+    }
+}
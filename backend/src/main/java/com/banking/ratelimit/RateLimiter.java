@@ -0,0 +1,96 @@
+package com.banking.ratelimit;
+
+import com.banking.exception.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket rate limits keyed by user id and account number, checked by the
+ * transaction endpoints before any service or database work.
+ *
+ * Buckets live in a Caffeine map (internally striped, so concurrent callers rarely
+ * contend) that is bounded in size and forgets buckets idle for longer than the idle
+ * timeout. A request must get a token from both its user's and its account's bucket.
+ */
+@Component
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Key, TokenBucket> buckets;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        meterRegistry.gauge("banking.rate_limit.buckets", buckets, cache -> cache.estimatedSize());
+    }
+
+    /**
+     * Take a token for a request to an endpoint, or throw {@link RateLimitExceededException}
+     */
+    public void acquire(String endpoint, Long userId, String accountNumber) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        RateLimitProperties.EndpointLimits limits = properties.getEndpoints().get(endpoint);
+        if (limits == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket userBucket = null;
+        if (limits.getUser() != null && userId != null) {
+            userBucket = bucket(new Key(endpoint, Scope.USER, userId.toString()), limits.getUser(), now);
+            long wait = userBucket.tryAcquire(now);
+            if (wait > 0) {
+                throw rejected(endpoint, Scope.USER, wait);
+            }
+        }
+        if (limits.getAccount() != null && accountNumber != null) {
+            long wait = bucket(new Key(endpoint, Scope.ACCOUNT, accountNumber), limits.getAccount(), now).tryAcquire(now);
+            if (wait > 0) {
+                // The request never ran, so it should not count against the user
+                if (userBucket != null) {
+                    userBucket.refund();
+                }
+                throw rejected(endpoint, Scope.ACCOUNT, wait);
+            }
+        }
+    }
+
+    private TokenBucket bucket(Key key, RateLimitProperties.Limit limit, long now) {
+        return buckets.get(key, k -> new TokenBucket(limit.getRate(), limit.getBurst(), now));
+    }
+
+    private RateLimitExceededException rejected(String endpoint, Scope scope, long waitNanos) {
+        meterRegistry.counter("banking.rate_limit.rejected", "endpoint", endpoint, "scope", scope.tag).increment();
+        // Retry-After is in whole seconds
+        long seconds = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        return new RateLimitExceededException("Too many " + endpoint + " requests for this "
+                + scope.tag + ", please retry later", Duration.ofSeconds(seconds));
+    }
+
+    private enum Scope {
+        USER("user"),
+        ACCOUNT("account");
+
+        private final String tag;
+
+        Scope(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record Key(String endpoint, Scope scope, String id) {
+    }
+}
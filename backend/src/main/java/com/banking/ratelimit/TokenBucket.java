@@ -0,0 +1,56 @@
+package com.banking.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket held in a single long.
+ *
+ * Stores the "theoretical arrival time" of the next request (the generic cell rate
+ * algorithm): each request pushes it one interval further, and a request is allowed as
+ * long as that stays within {@code burst} intervals of now. This is a token bucket of
+ * {@code burst} tokens refilled at {@code rate} per second, updated with one CAS.
+ */
+final class TokenBucket {
+
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param now {@link System#nanoTime()}; the bucket starts full
+     */
+    TokenBucket(double ratePerSecond, int burst, long now) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs a positive rate and a burst of at least 1");
+        }
+        this.interval = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.tolerance = interval * burst;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Take a token if one is available.
+     *
+     * @return 0 when the request may proceed, otherwise nanoseconds until a token is free
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken by {@link #tryAcquire} for a request that was rejected elsewhere
+     */
+    void refund() {
+        theoreticalArrival.addAndGet(-interval);
+    }
+}
@@ -0,0 +1,47 @@
+package com.banking.repository;
+
+import com.banking.model.AccountActivity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for AccountActivity entity
+ */
+@Repository
+public interface AccountActivityRepository extends JpaRepository<AccountActivity, String> {
+
+    /**
+     * Load the totals row of an account, locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AccountActivity a WHERE a.accountNumber = :accountNumber")
+    Optional<AccountActivity> findForUpdate(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Delete the totals row of an account (before a rebuild)
+     */
+    @Modifying
+    @Query("DELETE FROM AccountActivity a WHERE a.accountNumber = :accountNumber")
+    int deleteByAccount(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Recompute the totals row of an account from its daily rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_activity (account_number, "
+            + "deposit_count, deposit_amount, withdraw_count, withdraw_amount, "
+            + "transfer_in_count, transfer_in_amount, transfer_out_count, transfer_out_amount) "
+            + "SELECT account_number, SUM(deposit_count), SUM(deposit_amount), "
+            + "SUM(withdraw_count), SUM(withdraw_amount), SUM(transfer_in_count), SUM(transfer_in_amount), "
+            + "SUM(transfer_out_count), SUM(transfer_out_amount) "
+            + "FROM account_daily_activity WHERE account_number = :accountNumber GROUP BY account_number",
+            nativeQuery = true)
+    int rebuildFromDaily(@Param("accountNumber") String accountNumber);
+}
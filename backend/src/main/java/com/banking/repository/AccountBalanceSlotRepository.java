@@ -0,0 +1,88 @@
+package com.banking.repository;
+
+import com.banking.model.AccountBalanceSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for AccountBalanceSlot entity
+ */
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, AccountBalanceSlot.Key> {
+
+    /**
+     * Add a deposit to a slot counting deposits of the given day; 0 when the slot is
+     * missing or still counts another day
+     */
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.balance = s.balance + :amount, "
+            + "s.depositCount = s.depositCount + 1, s.depositAmount = s.depositAmount + :amount "
+            + "WHERE s.accountNumber = :accountNumber AND s.slot = :slot AND s.activityDate = :day")
+    int addDeposit(@Param("accountNumber") String accountNumber, @Param("slot") int slot,
+                   @Param("day") LocalDate day, @Param("amount") BigDecimal amount);
+
+    /**
+     * Start counting deposits of another day in a slot (its balance is kept)
+     */
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.depositCount = 0, s.depositAmount = 0, s.activityDate = :day "
+            + "WHERE s.accountNumber = :accountNumber AND s.slot = :slot")
+    int startDay(@Param("accountNumber") String accountNumber, @Param("slot") int slot, @Param("day") LocalDate day);
+
+    /**
+     * Zero the deposit counts of every slot of an account, keeping the balances
+     */
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.depositCount = 0, s.depositAmount = 0 WHERE s.accountNumber = :accountNumber")
+    int clearDeposits(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Empty every slot of an account (after folding them into the account)
+     */
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.balance = 0, s.depositCount = 0, s.depositAmount = 0, "
+            + "s.activityDate = :day WHERE s.accountNumber = :accountNumber")
+    int reset(@Param("accountNumber") String accountNumber, @Param("day") LocalDate day);
+
+    /**
+     * Drop the slots of an account from the given slot number up
+     */
+    @Modifying
+    @Query("DELETE FROM AccountBalanceSlot s WHERE s.accountNumber = :accountNumber AND s.slot >= :from")
+    int deleteFrom(@Param("accountNumber") String accountNumber, @Param("from") int from);
+
+    /**
+     * Load one slot, locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceSlot s WHERE s.accountNumber = :accountNumber AND s.slot = :slot")
+    Optional<AccountBalanceSlot> findForUpdate(@Param("accountNumber") String accountNumber, @Param("slot") int slot);
+
+    /**
+     * Load every slot of an account in slot order, locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceSlot s WHERE s.accountNumber = :accountNumber ORDER BY s.slot")
+    List<AccountBalanceSlot> findAllForUpdate(@Param("accountNumber") String accountNumber);
+
+    List<AccountBalanceSlot> findByAccountNumber(String accountNumber);
+
+    /**
+     * Balance held in the slots of an account (0 without slots)
+     */
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceSlot s WHERE s.accountNumber = :accountNumber")
+    BigDecimal sumBalance(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT DISTINCT s.accountNumber FROM AccountBalanceSlot s")
+    List<String> findAccountNumbers();
+}
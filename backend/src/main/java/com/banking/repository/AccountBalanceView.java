@@ -0,0 +1,13 @@
+package com.banking.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of an account's balance, read without hydrating the Account entity
+ */
+public interface AccountBalanceView {
+
+    String getAccountNumber();
+
+    BigDecimal getBalance();
+}
@@ -0,0 +1,66 @@
+package com.banking.repository;
+
+import com.banking.model.AccountDailyActivity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for AccountDailyActivity entity
+ */
+@Repository
+public interface AccountDailyActivityRepository
+        extends JpaRepository<AccountDailyActivity, AccountDailyActivity.Key> {
+
+    /**
+     * Load the row of an account for one day, locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM AccountDailyActivity d "
+            + "WHERE d.accountNumber = :accountNumber AND d.activityDate = :activityDate")
+    Optional<AccountDailyActivity> findForUpdate(@Param("accountNumber") String accountNumber,
+                                                 @Param("activityDate") LocalDate activityDate);
+
+    /**
+     * Daily rows of an account between two dates (inclusive), oldest first
+     */
+    List<AccountDailyActivity> findByAccountNumberAndActivityDateBetweenOrderByActivityDate(
+            String accountNumber, LocalDate from, LocalDate to);
+
+    /**
+     * Delete all daily rows of an account (before a rebuild)
+     */
+    @Modifying
+    @Query("DELETE FROM AccountDailyActivity d WHERE d.accountNumber = :accountNumber")
+    int deleteByAccount(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Recompute the daily rows of an account from its successful transactions
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_daily_activity (account_number, activity_date, "
+            + "deposit_count, deposit_amount, withdraw_count, withdraw_amount, "
+            + "transfer_in_count, transfer_in_amount, transfer_out_count, transfer_out_amount) "
+            + "SELECT :accountNumber, CAST(t.transaction_date AS DATE), "
+            + "SUM(CASE WHEN t.type = 'DEPOSIT' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN t.type = 'DEPOSIT' THEN t.amount ELSE 0 END), "
+            + "SUM(CASE WHEN t.type = 'WITHDRAW' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN t.type = 'WITHDRAW' THEN t.amount ELSE 0 END), "
+            + "SUM(CASE WHEN t.type = 'TRANSFER' AND t.to_account = :accountNumber THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN t.type = 'TRANSFER' AND t.to_account = :accountNumber THEN t.amount ELSE 0 END), "
+            + "SUM(CASE WHEN t.type = 'TRANSFER' AND t.from_account = :accountNumber THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN t.type = 'TRANSFER' AND t.from_account = :accountNumber THEN t.amount ELSE 0 END) "
+            + "FROM transactions t "
+            + "WHERE t.status = 'SUCCESS' AND (t.from_account = :accountNumber OR t.to_account = :accountNumber) "
+            + "GROUP BY CAST(t.transaction_date AS DATE)",
+            nativeQuery = true)
+    int rebuildFromTransactions(@Param("accountNumber") String accountNumber);
+}
@@ -0,0 +1,25 @@
+package com.banking.repository;
+
+import com.banking.model.AccountNumberSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+
+/**
+ * Repository interface for AccountNumberSequence entity
+ */
+@Repository
+public interface AccountNumberSequenceRepository extends JpaRepository<AccountNumberSequence, String> {
+
+    /**
+     * Find a sequence row and lock it until the surrounding transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountNumberSequence s WHERE s.name = :name")
+    Optional<AccountNumberSequence> findForUpdate(@Param("name") String name);
+}
@@ -1,11 +1,24 @@
 package com.banking.repository;
 
 import com.banking.model.Account;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for Account entity
@@ -18,13 +31,69 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      */
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    /**
+     * Find account by account number and lock its row until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Account> findLockedByAccountNumber(String accountNumber);
+
+    /**
+     * Find several accounts and lock their rows until the transaction ends, in account number order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.accountNumber")
+    List<Account> findAllLocked(@Param("accountNumbers") Collection<String> accountNumbers);
+
     /**
      * Find all accounts belonging to a specific user
      */
     List<Account> findByUserId(Long userId);
 
+    /**
+     * Read only the balance of an account (single-column projection)
+     */
+    @Transactional(readOnly = true)
+    Optional<AccountBalanceView> findBalanceByAccountNumber(String accountNumber);
+
+    /**
+     * Read the balance of an account plus whatever its balance slots hold, in one statement
+     */
+    @Query("SELECT a.balance + COALESCE((SELECT SUM(s.balance) FROM AccountBalanceSlot s "
+            + "WHERE s.accountNumber = a.accountNumber), 0) FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<BigDecimal> findBalanceWithSlots(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Read the balances of all accounts (used to seed the ledger)
+     */
+    List<AccountBalanceView> findBalancesBy();
+
+    /**
+     * Stream every account number (builds the key filters).
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.accountNumber FROM Account a")
+    Stream<String> streamAccountNumbers();
+
     /**
      * Check if account number already exists
      */
     boolean existsByAccountNumber(String accountNumber);
+
+    /**
+     * Add an amount to the balance in a single UPDATE.
+     * Returns the number of rows affected (0 if the account does not exist).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount WHERE a.accountNumber = :accountNumber")
+    int creditBalance(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount);
+
+    /**
+     * Subtract an amount from the balance only if the balance covers it.
+     * Returns the number of rows affected (0 if the account does not exist or funds are insufficient).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount "
+            + "WHERE a.accountNumber = :accountNumber AND a.balance >= :amount")
+    int debitBalance(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,11 @@
+package com.banking.repository;
+
+/**
+ * One row of the per-account "latest N" ranking: which account it was ranked for and the transaction id
+ */
+public interface RecentTransactionView {
+
+    String getAccountNumber();
+
+    Long getId();
+}
@@ -0,0 +1,12 @@
+package com.banking.repository;
+
+import com.banking.model.TransactionAudit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for TransactionAudit entity
+ */
+@Repository
+public interface TransactionAuditRepository extends JpaRepository<TransactionAudit, Long> {
+}
@@ -1,10 +1,25 @@
 package com.banking.repository;
 
 import com.banking.model.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for Transaction entity
@@ -27,4 +42,109 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * Find all transactions by to account
      */
     List<Transaction> findByToAccountOrderByTransactionDateDesc(String toAccount);
+
+    /**
+     * First page of transactions sent from an account, newest first
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.fromAccount = :account "
+            + "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findFromAccountPage(@Param("account") String account, Pageable pageable);
+
+    /**
+     * Next page of transactions sent from an account, strictly after the (date, id) cursor
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.fromAccount = :account "
+            + "AND (t.transactionDate < :date OR (t.transactionDate = :date AND t.id < :id)) "
+            + "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findFromAccountPageAfter(@Param("account") String account,
+            @Param("date") LocalDateTime date, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * First page of transactions received by an account, newest first
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.toAccount = :account "
+            + "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findToAccountPage(@Param("account") String account, Pageable pageable);
+
+    /**
+     * Next page of transactions received by an account, strictly after the (date, id) cursor
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.toAccount = :account "
+            + "AND (t.transactionDate < :date OR (t.transactionDate = :date AND t.id < :id)) "
+            + "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findToAccountPageAfter(@Param("account") String account,
+            @Param("date") LocalDateTime date, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Ids of the latest {@code limit} transactions of each account, newest first, in one query.
+     * Both sides are ranked together by ROW_NUMBER over the (account, date, id) indexes;
+     * a transfer between two listed accounts appears once for each of them.
+     */
+    @Query(value = "SELECT r.account_number AS accountNumber, r.id AS id FROM ("
+            + "SELECT s.account_number, s.id, ROW_NUMBER() OVER ("
+            + "PARTITION BY s.account_number ORDER BY s.transaction_date DESC, s.id DESC) AS rn "
+            + "FROM (SELECT t.from_account AS account_number, t.id, t.transaction_date FROM transactions t "
+            + "WHERE t.from_account IN (:accounts) "
+            + "UNION ALL "
+            + "SELECT t.to_account, t.id, t.transaction_date FROM transactions t "
+            + "WHERE t.to_account IN (:accounts) AND (t.from_account IS NULL OR t.from_account <> t.to_account)"
+            + ") s) r WHERE r.rn <= :limit ORDER BY r.account_number, r.rn",
+            nativeQuery = true)
+    List<RecentTransactionView> findRecentIds(@Param("accounts") Collection<String> accounts,
+                                              @Param("limit") int limit);
+
+    /**
+     * Stream transactions sent from an account within [from, to), oldest first, as one range
+     * scan of the (from_account, date, id) index.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.fromAccount = :account "
+            + "AND t.transactionDate >= :from AND t.transactionDate < :to "
+            + "ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamSentStatement(@Param("account") String account,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Stream transactions received by an account within [from, to), oldest first, as one range
+     * scan of the (to_account, date, id) index. Transfers to itself are left to the sent side.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.toAccount = :account "
+            + "AND t.transactionDate >= :from AND t.transactionDate < :to "
+            + "AND (t.fromAccount IS NULL OR t.fromAccount <> t.toAccount) "
+            + "ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamReceivedStatement(@Param("account") String account,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Set the status of a posting that was recorded as PENDING
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :status WHERE t.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") Transaction.TransactionStatus status);
+
+    /**
+     * The given postings that are still in a status, in id order, locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id IN :ids AND t.status = :status ORDER BY t.id")
+    List<Transaction> findForUpdate(@Param("ids") Collection<Long> ids,
+                                    @Param("status") Transaction.TransactionStatus status);
+
+    /**
+     * Ids of postings of a type that have been in a status since before the given time, oldest first
+     */
+    @Query("SELECT t.id FROM Transaction t WHERE t.status = :status AND t.transactionDate < :before "
+            + "AND t.type = :type ORDER BY t.id")
+    List<Long> findIdsInStatusBefore(@Param("type") Transaction.TransactionType type,
+                                     @Param("status") Transaction.TransactionStatus status,
+                                     @Param("before") LocalDateTime before, Pageable pageable);
 }
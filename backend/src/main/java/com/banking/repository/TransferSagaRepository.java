@@ -0,0 +1,41 @@
+package com.banking.repository;
+
+import com.banking.model.TransferSaga;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for TransferSaga entity
+ */
+@Repository
+public interface TransferSagaRepository extends JpaRepository<TransferSaga, String> {
+
+    /**
+     * Sagas in a state that have not moved since the cutoff, oldest first
+     */
+    List<TransferSaga> findByStateAndUpdatedAtBeforeOrderByUpdatedAt(
+            TransferSaga.State state, LocalDateTime cutoff, Pageable limit);
+
+    /**
+     * Move a saga on only if it is still in the expected state; returns 0 when another
+     * attempt got there first
+     */
+    @Modifying
+    @Query("UPDATE TransferSaga s SET s.state = :to, s.updatedAt = :now WHERE s.id = :id AND s.state = :from")
+    int transition(@Param("id") String id, @Param("from") TransferSaga.State from,
+                   @Param("to") TransferSaga.State to, @Param("now") LocalDateTime now);
+
+    /**
+     * Push back the next recovery attempt of a saga
+     */
+    @Modifying
+    @Query("UPDATE TransferSaga s SET s.updatedAt = :now WHERE s.id = :id")
+    int touch(@Param("id") String id, @Param("now") LocalDateTime now);
+}
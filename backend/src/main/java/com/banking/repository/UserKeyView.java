@@ -0,0 +1,11 @@
+package com.banking.repository;
+
+/**
+ * Unique keys of a user (interface projection, no entity)
+ */
+public interface UserKeyView {
+
+    String getUsername();
+
+    String getEmail();
+}
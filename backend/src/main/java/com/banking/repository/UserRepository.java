@@ -1,10 +1,19 @@
 package com.banking.repository;
 
 import com.banking.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for User entity
@@ -31,4 +40,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Check if email already exists
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Stream the username and email of every user (builds the key filters).
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserKeyView> streamKeys();
+
+    /**
+     * Replace a stored password hash without loading the user's accounts
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
@@ -0,0 +1,13 @@
+package com.banking.security;
+
+import java.time.Instant;
+
+/**
+ * Verified contents of a session token
+ *
+ * @param userId    the logged-in user
+ * @param tokenId   random id, used to revoke this token on logout
+ * @param expiresAt end of the session
+ */
+public record SessionToken(long userId, long tokenId, Instant expiresAt) {
+}
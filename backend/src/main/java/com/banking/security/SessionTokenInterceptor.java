@@ -0,0 +1,97 @@
+package com.banking.security;
+
+import com.banking.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Rejects requests without a valid {@code Authorization: Bearer} session token with 401.
+ *
+ * Runs in front of the protected controllers after CORS processing, so browsers can read
+ * the 401. Verification is local (see {@link SessionTokenService}); the user id of an
+ * accepted token is exposed as the {@link #USER_ID_ATTRIBUTE} request attribute. A
+ * {@code {userId}} path variable must name the token's user, otherwise the request is
+ * rejected with 403. Where enabled (the SSE stream, as EventSource cannot set headers) the
+ * token may also be passed as the {@code access_token} query parameter.
+ */
+public class SessionTokenInterceptor implements HandlerInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "banking.auth.userId";
+    public static final String ACCESS_TOKEN_PARAMETER = "access_token";
+    private static final String BEARER = "Bearer ";
+    private static final String USER_ID_VARIABLE = "userId";
+
+    private final SessionTokenService tokenService;
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+    private final boolean queryTokenAccepted;
+
+    public SessionTokenInterceptor(SessionTokenService tokenService, ObjectMapper objectMapper, Counter rejected,
+                                   boolean queryTokenAccepted) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+        this.rejected = rejected;
+        this.queryTokenAccepted = queryTokenAccepted;
+    }
+
+    /**
+     * Token from the Authorization header, or null
+     */
+    public static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        return header.substring(BEARER.length()).trim();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        // Preflights never carry credentials
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+
+        String token = bearerToken(request);
+        if (token == null && queryTokenAccepted) {
+            token = request.getParameter(ACCESS_TOKEN_PARAMETER);
+        }
+        SessionToken session = token == null ? null : tokenService.verify(token);
+        if (session == null) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            return reject(response, HttpServletResponse.SC_UNAUTHORIZED,
+                    token == null ? "Login required" : "Session expired or invalid, please log in again");
+        }
+
+        // Per-user endpoints only serve the logged-in user
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String pathUserId = variables == null ? null : variables.get(USER_ID_VARIABLE);
+        if (pathUserId != null && !pathUserId.equals(Long.toString(session.userId()))) {
+            return reject(response, HttpServletResponse.SC_FORBIDDEN, "Access denied");
+        }
+
+        request.setAttribute(USER_ID_ATTRIBUTE, session.userId());
+        return true;
+    }
+
+    private boolean reject(HttpServletResponse response, int status, String message) throws IOException {
+        rejected.increment();
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+        return false;
+    }
+}
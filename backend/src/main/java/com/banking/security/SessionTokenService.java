@@ -0,0 +1,154 @@
+package com.banking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Issues and verifies stateless session tokens.
+ *
+ * A token is {@code base64url(userId, tokenId, expiry) + "." + base64url(HMAC-SHA256)} signed
+ * with a local key, so verifying one needs no database lookup. Logged-out tokens are kept
+ * in an in-memory revocation cache until they would have expired anyway; revocations are
+ * therefore only seen by the node that handled the logout.
+ */
+@Service
+public class SessionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_BYTES = 3 * Long.BYTES;
+    private static final int MIN_KEY_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Cache<Long, Boolean> revoked;
+    private final SecureRandom random = new SecureRandom();
+
+    // Mac instances are stateful; one per thread avoids both locking and per-call setup
+    private final ThreadLocal<Mac> macs;
+
+    public SessionTokenService(@Value("${banking.auth.token-secret:}") String secret,
+                               @Value("${banking.auth.token-ttl:12h}") Duration ttl,
+                               @Value("${banking.auth.revocation-cache-size:100000}") long revocationCacheSize) {
+        this.key = new SecretKeySpec(keyBytes(secret), ALGORITHM);
+        this.ttl = ttl;
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(revocationCacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Sign a new token for a user
+     */
+    public String issue(long userId) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+                .putLong(userId)
+                .putLong(random.nextLong())
+                .putLong(expiresAt.getEpochSecond());
+        return ENCODER.encodeToString(payload.array()) + "." + ENCODER.encodeToString(sign(payload.array()));
+    }
+
+    /**
+     * Check signature, expiry and revocation.
+     *
+     * @return the token's contents, or null if it is malformed, forged, expired or revoked
+     */
+    public SessionToken verify(String token) {
+        SessionToken session = decode(token);
+        if (session == null
+                || !Instant.now().isBefore(session.expiresAt())
+                || revoked.getIfPresent(session.tokenId()) != null) {
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Revoke a valid token until it expires; invalid tokens are ignored
+     */
+    public void revoke(String token) {
+        SessionToken session = verify(token);
+        if (session != null) {
+            revoked.put(session.tokenId(), Boolean.TRUE);
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private SessionToken decode(String token) {
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, separator));
+            signature = DECODER.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+        ByteBuffer fields = ByteBuffer.wrap(payload);
+        return new SessionToken(fields.getLong(), fields.getLong(), Instant.ofEpochSecond(fields.getLong()));
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+
+    private static byte[] keyBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            // Fine for a single development instance; tokens die with the process
+            log.warn("banking.auth.token-secret is not set; using a random key, so sessions end on restart");
+            byte[] generated = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(generated);
+            return generated;
+        }
+        byte[] decoded;
+        try {
+            decoded = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("banking.auth.token-secret must be Base64", e);
+        }
+        if (decoded.length < MIN_KEY_BYTES) {
+            throw new IllegalArgumentException("banking.auth.token-secret must decode to at least "
+                    + MIN_KEY_BYTES + " bytes");
+        }
+        return decoded;
+    }
+}
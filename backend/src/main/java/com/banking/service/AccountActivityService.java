@@ -0,0 +1,232 @@
+package com.banking.service;
+
+import com.banking.exception.ResourceNotFoundException;
+import com.banking.model.AccountActivity;
+import com.banking.model.AccountDailyActivity;
+import com.banking.model.Transaction;
+import com.banking.repository.AccountActivityRepository;
+import com.banking.repository.AccountBalanceView;
+import com.banking.repository.AccountDailyActivityRepository;
+import com.banking.repository.AccountRepository;
+import com.banking.sharding.ShardKey;
+import com.banking.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-account and per-day running totals of successful postings.
+ *
+ * Totals are updated in the posting's own transaction, after its balance updates, so the
+ * account row lock already serialises writers of the same account. Summaries then read one
+ * row instead of scanning the transactions table.
+ */
+@Service
+public class AccountActivityService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountActivityService.class);
+    private static final long MAX_DAILY_RANGE_DAYS = 366;
+
+    @Autowired
+    private AccountActivityRepository activityRepository;
+
+    @Autowired
+    private AccountDailyActivityRepository dailyRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    @Value("${banking.activity.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    /**
+     * Add one posting to the totals of the accounts it touches
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Transaction transaction) {
+        recordAll(List.of(transaction));
+    }
+
+    /**
+     * Add a batch of postings, one locked update per account and day
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Collection<Transaction> transactions) {
+        // Sorted by account then day so concurrent batches lock rows in the same order
+        Map<String, Map<LocalDate, AccountDailyActivity>> deltas = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getStatus() != Transaction.TransactionStatus.SUCCESS) {
+                continue;
+            }
+            LocalDate day = transaction.getTransactionDate().toLocalDate();
+            if (transaction.getToAccount() != null) {
+                delta(deltas, transaction.getToAccount(), day)
+                        .add(transaction.getType(), true, transaction.getAmount());
+            }
+            if (transaction.getFromAccount() != null) {
+                delta(deltas, transaction.getFromAccount(), day)
+                        .add(transaction.getType(), false, transaction.getAmount());
+            }
+        }
+
+        deltas.forEach(this::apply);
+    }
+
+    /**
+     * Add deposits that were held back from the totals (see {@link StripedBalances}), by day
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeposits(String accountNumber, Map<LocalDate, AccountDailyActivity> days) {
+        apply(accountNumber, new TreeMap<>(days));
+    }
+
+    /**
+     * Lifetime totals of an account
+     */
+    @Transactional(readOnly = true)
+    public AccountActivity getActivity(@ShardKey String accountNumber) {
+        AccountActivity totals = activityRepository.findById(accountNumber)
+                .orElseGet(() -> {
+                    requireAccount(accountNumber);
+                    return new AccountActivity(accountNumber);
+                });
+        Map<LocalDate, AccountDailyActivity> pending = stripedBalances.pendingDeposits(accountNumber);
+        if (pending.isEmpty()) {
+            return totals;
+        }
+        // A copy, so the managed row is not changed
+        AccountActivity withPending = new AccountActivity(accountNumber);
+        withPending.add(totals);
+        pending.values().forEach(withPending::add);
+        return withPending;
+    }
+
+    /**
+     * Daily totals of an account between two dates (inclusive); days without postings are omitted
+     */
+    @Transactional(readOnly = true)
+    public List<AccountDailyActivity> getDailyActivity(@ShardKey String accountNumber, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(30);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_DAILY_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_DAILY_RANGE_DAYS + " days");
+        }
+        requireAccount(accountNumber);
+        List<AccountDailyActivity> days =
+                dailyRepository.findByAccountNumberAndActivityDateBetweenOrderByActivityDate(accountNumber, start, end);
+        Map<LocalDate, AccountDailyActivity> pending = stripedBalances.pendingDeposits(accountNumber);
+        pending.keySet().removeIf(day -> day.isBefore(start) || day.isAfter(end));
+        if (pending.isEmpty()) {
+            return days;
+        }
+        // Pending deposits are already per-day copies; add the stored days to them
+        for (AccountDailyActivity day : days) {
+            pending.computeIfAbsent(day.getActivityDate(), key -> new AccountDailyActivity(accountNumber, key))
+                    .add(day);
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Recompute every account's totals from the transactions table.
+     * Each account is rebuilt in its own transaction while holding its row lock, so this
+     * can run alongside live postings. Returns the number of accounts rebuilt.
+     */
+    public int rebuild() {
+        AtomicInteger rebuilt = new AtomicInteger();
+        // Every shard rebuilds its own accounts from its own transactions
+        shardRouter.forEachShard(() -> {
+            for (AccountBalanceView account : accountRepository.findBalancesBy()) {
+                Boolean done = transactionTemplate.execute(status -> rebuild(account.getAccountNumber()));
+                if (Boolean.TRUE.equals(done)) {
+                    rebuilt.incrementAndGet();
+                }
+            }
+        });
+        return rebuilt.get();
+    }
+
+    /**
+     * Backfill totals for data posted before they existed (banking.activity.rebuild-on-startup=true)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        long started = System.nanoTime();
+        int accounts = rebuild();
+        log.info("Rebuilt activity totals of {} accounts in {} ms", accounts,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private boolean rebuild(String accountNumber) {
+        if (accountRepository.findLockedByAccountNumber(accountNumber).isEmpty()) {
+            return false;
+        }
+        // The transactions include deposits still waiting in balance slots; locking the slots
+        // first holds new slot deposits back until the rebuild commits
+        stripedBalances.forgetPendingDeposits(accountNumber);
+        dailyRepository.deleteByAccount(accountNumber);
+        activityRepository.deleteByAccount(accountNumber);
+        dailyRepository.rebuildFromTransactions(accountNumber);
+        activityRepository.rebuildFromDaily(accountNumber);
+        return true;
+    }
+
+    private void requireAccount(String accountNumber) {
+        if (!accountRepository.existsByAccountNumber(accountNumber)) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+    }
+
+    /**
+     * Apply per-day deltas to an account's daily and lifetime rows, locking them in day order
+     */
+    private void apply(String accountNumber, Map<LocalDate, AccountDailyActivity> days) {
+        AccountActivity totals = activityRepository.findForUpdate(accountNumber)
+                .orElseGet(() -> new AccountActivity(accountNumber));
+        days.forEach((day, delta) -> {
+            AccountDailyActivity daily = dailyRepository.findForUpdate(accountNumber, day)
+                    .orElseGet(() -> new AccountDailyActivity(accountNumber, day));
+            daily.add(delta);
+            dailyRepository.save(daily);
+            totals.add(delta);
+        });
+        activityRepository.save(totals);
+    }
+
+    private static AccountDailyActivity delta(Map<String, Map<LocalDate, AccountDailyActivity>> deltas,
+                                              String accountNumber, LocalDate day) {
+        return deltas.computeIfAbsent(accountNumber, key -> new TreeMap<>())
+                .computeIfAbsent(day, key -> new AccountDailyActivity(accountNumber, day));
+    }
+}
@@ -0,0 +1,192 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, TTL-evicted in-process cache of accounts keyed by account number,
+ * plus the list of account numbers per user. Cached accounts are shared and
+ * must be treated as read-only; writers evict instead of mutating them.
+ *
+ * <p>Readers take a {@link #stamp()} before loading from the database and pass it to
+ * {@code put}. Every eviction advances a version for its key's stripe, and a put whose
+ * stamp is older than that version is dropped. A read that raced a write therefore
+ * cannot re-cache the pre-commit state after the write's eviction has run.
+ */
+@Component
+public class AccountCache {
+
+    private static final int STRIPES = 1024;
+
+    private final Cache<String, Account> accounts;
+    private final Cache<Long, List<String>> userAccounts;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLongArray accountVersions = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray userVersions = new AtomicLongArray(STRIPES);
+
+    public AccountCache(@Value("${banking.account-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${banking.account-cache.ttl:60s}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.userAccounts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        // Expose hit/miss/eviction counters as cache.* meters
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, "accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, userAccounts, "userAccounts");
+    }
+
+    /**
+     * Get a cached account, or null on a miss
+     */
+    public Account get(String accountNumber) {
+        return accounts.getIfPresent(accountNumber);
+    }
+
+    /**
+     * Version to pass to {@code put}; take it before reading from the database
+     */
+    public long stamp() {
+        return clock.get();
+    }
+
+    /**
+     * Cache an account read after {@code stamp} was taken, unless it has been evicted since
+     */
+    public void put(Account account, long stamp) {
+        String accountNumber = account.getAccountNumber();
+        int stripe = stripe(accountNumber);
+        if (accountVersions.get(stripe) > stamp) {
+            return;
+        }
+        accounts.put(accountNumber, account);
+        // An eviction may have run between the check and the put
+        if (accountVersions.get(stripe) > stamp) {
+            accounts.invalidate(accountNumber);
+        }
+    }
+
+    /**
+     * Get all cached accounts of a user, or null if any of them is missing
+     */
+    public List<Account> getUserAccounts(Long userId) {
+        List<String> accountNumbers = userAccounts.getIfPresent(userId);
+        if (accountNumbers == null) {
+            return null;
+        }
+        List<Account> result = new ArrayList<>(accountNumbers.size());
+        for (String accountNumber : accountNumbers) {
+            Account account = accounts.getIfPresent(accountNumber);
+            if (account == null) {
+                return null;
+            }
+            result.add(account);
+        }
+        return result;
+    }
+
+    /**
+     * Cache all accounts of a user, read after {@code stamp} was taken
+     */
+    public void putUserAccounts(Long userId, List<Account> userAccountList, long stamp) {
+        userAccountList.forEach(account -> put(account, stamp));
+        int stripe = stripe(userId);
+        if (userVersions.get(stripe) > stamp) {
+            return;
+        }
+        userAccounts.put(userId, userAccountList.stream().map(Account::getAccountNumber).toList());
+        if (userVersions.get(stripe) > stamp) {
+            userAccounts.invalidate(userId);
+        }
+    }
+
+    /**
+     * Drop an account now and again once the surrounding transaction completes.
+     * Both steps advance the key's version, so reads stamped before the commit are not cached.
+     */
+    public void evict(String accountNumber) {
+        int stripe = stripe(accountNumber);
+        advance(accountVersions, stripe);
+        accounts.invalidate(accountNumber);
+        afterCompletion(() -> {
+            advance(accountVersions, stripe);
+            accounts.invalidate(accountNumber);
+        });
+    }
+
+    /**
+     * Drop the account list of a user (now and on transaction completion)
+     */
+    public void evictUser(Long userId) {
+        int stripe = stripe(userId);
+        advance(userVersions, stripe);
+        userAccounts.invalidate(userId);
+        afterCompletion(() -> {
+            advance(userVersions, stripe);
+            userAccounts.invalidate(userId);
+        });
+    }
+
+    /**
+     * Hit / miss / eviction statistics for both caches
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accounts", describe(accounts.stats(), accounts.estimatedSize()));
+        stats.put("userAccounts", describe(userAccounts.stats(), userAccounts.estimatedSize()));
+        return stats;
+    }
+
+    private Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", size);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private void advance(AtomicLongArray versions, int stripe) {
+        versions.accumulateAndGet(stripe, clock.incrementAndGet(), Math::max);
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.banking.service;
+
+import com.banking.model.AccountNumberSequence;
+import com.banking.repository.AccountNumberSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique 12-digit account numbers (11-digit sequence value + Luhn check digit).
+ * Blocks of sequence values are reserved from the shared account_number_sequence row,
+ * so each node allocates locally without existence probes and only touches the
+ * database once per block.
+ */
+@Component
+public class AccountNumberGenerator {
+
+    private static final String SEQUENCE_NAME = "account_number";
+    private static final long MAX_VALUE = 99_999_999_999L;
+
+    @Autowired
+    private AccountNumberSequenceRepository sequenceRepository;
+
+    private final TransactionTemplate allocationTransaction;
+    private final long blockSize;
+    private final long initialValue;
+
+    private volatile Block current = new Block(0, 0);
+
+    public AccountNumberGenerator(PlatformTransactionManager transactionManager,
+                                  @Value("${banking.account-number.block-size:100}") long blockSize,
+                                  @Value("${banking.account-number.initial-value:10000000000}") long initialValue) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Account number block size must be positive");
+        }
+        this.blockSize = blockSize;
+        this.initialValue = initialValue;
+
+        // Block reservations commit on their own, independent of the caller's transaction
+        this.allocationTransaction = new TransactionTemplate(transactionManager);
+        this.allocationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next unique account number
+     */
+    public String next() {
+        while (true) {
+            Block block = current;
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                return withCheckDigit(value);
+            }
+            refill(block);
+        }
+    }
+
+    /**
+     * Replace an exhausted block; only one thread reserves, the others retry on the new block
+     */
+    private synchronized void refill(Block exhausted) {
+        if (current != exhausted) {
+            return;
+        }
+        long start = reserveBlock();
+        current = new Block(start, Math.min(start + blockSize, MAX_VALUE + 1));
+    }
+
+    /**
+     * Reserve the next block from the shared sequence row; returns its first value
+     */
+    private long reserveBlock() {
+        try {
+            return allocationTransaction.execute(status -> reserveLocked());
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the sequence row first; the row now exists
+            return allocationTransaction.execute(status -> reserveLocked());
+        }
+    }
+
+    private long reserveLocked() {
+        AccountNumberSequence sequence = sequenceRepository.findForUpdate(SEQUENCE_NAME)
+                .orElseGet(() -> new AccountNumberSequence(SEQUENCE_NAME, initialValue));
+
+        long start = sequence.getNextValue();
+        if (start > MAX_VALUE) {
+            throw new IllegalStateException("Account number range exhausted");
+        }
+        sequence.setNextValue(start + blockSize);
+        sequenceRepository.saveAndFlush(sequence);
+        return start;
+    }
+
+    private static String withCheckDigit(long value) {
+        StringBuilder number = new StringBuilder(12).append(value);
+        while (number.length() < 11) {
+            number.insert(0, '0');
+        }
+        return number.append(luhnDigit(number)).toString();
+    }
+
+    /**
+     * Luhn check digit for a string of digits
+     */
+    private static int luhnDigit(CharSequence digits) {
+        int sum = 0;
+        boolean doubleIt = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubleIt) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleIt = !doubleIt;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Half-open range [next, end) of sequence values owned by this node
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
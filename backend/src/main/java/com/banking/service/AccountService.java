@@ -1,17 +1,26 @@
 // Feature branch: future enhancement for minimum balance validation
 package com.banking.service;
 
+import com.banking.bloom.KeyFilters;
 import com.banking.dto.AccountRequest;
+import com.banking.dto.AccountSummary;
+import com.banking.events.AccountCreatedEvent;
+import com.banking.exception.AccessDeniedException;
 import com.banking.exception.ResourceNotFoundException;
+import com.banking.ledger.LedgerService;
 import com.banking.model.Account;
 import com.banking.model.User;
+import com.banking.repository.AccountBalanceView;
 import com.banking.repository.AccountRepository;
+import com.banking.sharding.ShardKey;
+import com.banking.sharding.ShardRouter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Random;
 
 /**
  * Service layer for Account-related business logic
@@ -25,6 +34,28 @@ public class AccountService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private AccountNumberGenerator accountNumberGenerator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private KeyFilters keyFilters;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    // Present only with banking.ledger.enabled=true
+    @Autowired(required = false)
+    private LedgerService ledgerService;
+
     /**
      * Create a new bank account
      */
@@ -39,7 +70,7 @@ public class AccountService {
 
         // Create account
         Account account = new Account();
-        account.setAccountNumber(generateAccountNumber());
+        account.setAccountNumber(accountNumberGenerator.next());
         account.setHolderName(request.getHolderName());
         account.setBalance(request.getInitialBalance());
         account.setPhone(request.getPhone());
@@ -47,31 +78,134 @@ public class AccountService {
         account.setDateOfBirth(request.getDateOfBirth());
         account.setUser(user);
 
-        return accountRepository.save(account);
+        Account saved = shardRouter.onShardOf(account.getAccountNumber(), () -> accountRepository.save(account));
+        if (ledgerService != null) {
+            try {
+                ledgerService.openAccount(saved);
+            } catch (RuntimeException e) {
+                // Without its ledger account the row is unusable: take it back out
+                shardRouter.onShardOf(saved.getAccountNumber(), () -> {
+                    accountRepository.delete(saved);
+                    return null;
+                });
+                throw e;
+            }
+        }
+        accountCache.evictUser(user.getId());
+        eventPublisher.publishEvent(new AccountCreatedEvent(user.getId(), AccountSummary.from(saved)));
+        return saved;
     }
 
     /**
-     * Get all accounts for a specific user
+     * Get all accounts for a specific user (served from the cache when possible)
      */
+    @Transactional(readOnly = true)
     public List<Account> getAccountsByUserId(Long userId) {
-        return accountRepository.findByUserId(userId);
+        List<Account> accounts = accountCache.getUserAccounts(userId);
+        if (accounts == null) {
+            long stamp = accountCache.stamp();
+            // A user's accounts can live on any shard
+            accounts = shardRouter.readEveryShard(() -> accountRepository.findByUserId(userId));
+            accountCache.putUserAccounts(userId, accounts, stamp);
+        }
+        return accounts.stream().map(this::withCurrentBalance).toList();
+    }
+
+    /**
+     * Get the account list of a user without personal details
+     */
+    @Transactional(readOnly = true)
+    public List<AccountSummary> getAccountSummariesByUserId(Long userId) {
+        return getAccountsByUserId(userId).stream()
+                .map(AccountSummary::from)
+                .toList();
+    }
+
+    /**
+     * Get account by account number (served from the cache when possible)
+     */
+    @Transactional(readOnly = true)
+    public Account getAccountByNumber(@ShardKey String accountNumber) {
+        return withCurrentBalance(loadAccount(accountNumber));
+    }
+
+    /**
+     * Fail with 403 unless the account belongs to the user (404 for unknown accounts)
+     */
+    @Transactional(readOnly = true)
+    public void requireOwner(@ShardKey String accountNumber, Long userId) {
+        if (!ownerOf(accountNumber).equals(userId)) {
+            throw new AccessDeniedException("Access denied");
+        }
     }
 
     /**
-     * Get account by account number
+     * Whether the account exists and belongs to the user
      */
-    public Account getAccountByNumber(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber)
+    @Transactional(readOnly = true)
+    public boolean isOwner(@ShardKey String accountNumber, Long userId) {
+        try {
+            return ownerOf(accountNumber).equals(userId);
+        } catch (ResourceNotFoundException e) {
+            return false;
+        }
+    }
+
+    private Long ownerOf(String accountNumber) {
+        // The user is a lazy reference; reading its id does not load it, so cached accounts work too
+        return loadAccount(accountNumber).getUser().getId();
+    }
+
+    /**
+     * Get account balance from the ledger when enabled, otherwise straight from the
+     * balance column (no entity, no cache)
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(@ShardKey String accountNumber) {
+        rejectUnknownAccount(accountNumber);
+        if (ledgerService != null) {
+            return ledgerService.getBalance(accountNumber);
+        }
+        if (stripedBalances.isStriped(accountNumber)) {
+            return stripedBalances.balance(accountNumber);
+        }
+        return accountRepository.findBalanceByAccountNumber(accountNumber)
+                .map(AccountBalanceView::getBalance)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Account not found with number: " + accountNumber));
     }
 
+    private Account loadAccount(String accountNumber) {
+        rejectUnknownAccount(accountNumber);
+        Account account = accountCache.get(accountNumber);
+        if (account == null) {
+            long stamp = accountCache.stamp();
+            account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Account not found with number: " + accountNumber));
+            accountCache.put(account, stamp);
+        }
+        return account;
+    }
+
     /**
-     * Get account balance
+     * A copy of the account showing its current balance: from the ledger when enabled, since
+     * account rows trail it until its writer catches up, otherwise including striped slots
      */
-    public BigDecimal getBalance(String accountNumber) {
-        Account account = getAccountByNumber(accountNumber);
-        return account.getBalance();
+    private Account withCurrentBalance(Account account) {
+        if (ledgerService != null) {
+            return account.withBalance(ledgerService.getBalance(account.getAccountNumber()));
+        }
+        return stripedBalances.withPendingBalance(account);
+    }
+
+    /**
+     * Fail fast, without a query, for account numbers the key filter has never seen
+     */
+    public void rejectUnknownAccount(String accountNumber) {
+        if (!keyFilters.mightHaveAccount(accountNumber)) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
     }
 
     /**
@@ -80,18 +214,37 @@ public class AccountService {
     public void updateBalance(Account account, BigDecimal newBalance) {
         account.setBalance(newBalance);
         accountRepository.save(account);
+        accountCache.evict(account.getAccountNumber());
     }
 
     /**
-     * Generate unique account number
+     * Credit an account with a single conditional UPDATE (no read-modify-write)
      */
-    private String generateAccountNumber() {
-        String accountNumber;
-        do {
-            accountNumber = String.format("%012d", new Random().nextLong() % 1000000000000L);
-            accountNumber = accountNumber.replace("-", "1"); // Remove negative sign if any
-        } while (accountRepository.existsByAccountNumber(accountNumber));
-
-        return accountNumber;
+    public void credit(String accountNumber, BigDecimal amount) {
+        accountCache.evict(accountNumber);
+        if (accountRepository.creditBalance(accountNumber, amount) == 0) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+    }
+
+    /**
+     * Debit an account only if its balance covers the amount.
+     * Returns false when funds are insufficient.
+     */
+    public boolean debit(String accountNumber, BigDecimal amount) {
+        if (stripedBalances.isStriped(accountNumber)) {
+            // Part of the balance sits in slots the single UPDATE cannot see
+            return stripedBalances.debit(accountNumber, amount);
+        }
+        accountCache.evict(accountNumber);
+        if (accountRepository.debitBalance(accountNumber, amount) == 1) {
+            return true;
+        }
+
+        // No row updated: either the account is missing or the guard rejected it
+        if (!accountRepository.existsByAccountNumber(accountNumber)) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+        return false;
     }
 }
@@ -0,0 +1,82 @@
+package com.banking.service;
+
+import com.banking.dto.AccountSummary;
+import com.banking.dto.Dashboard;
+import com.banking.model.Transaction;
+import com.banking.repository.RecentTransactionView;
+import com.banking.repository.TransactionRepository;
+import com.banking.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the dashboard in a fixed number of queries regardless of how many accounts a user has:
+ * the account list, one ranked id query across all accounts and one batched row fetch
+ * (the last two once per shard when accounts are sharded).
+ */
+@Service
+public class DashboardService {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${banking.dashboard.recent-transactions.default:10}")
+    private int defaultRecentTransactions;
+
+    @Value("${banking.dashboard.recent-transactions.max:50}")
+    private int maxRecentTransactions;
+
+    /**
+     * Accounts of a user with the latest {@code limit} transactions of each
+     */
+    @Transactional(readOnly = true)
+    public Dashboard getDashboard(Long userId, Integer limit) {
+        int perAccount = limit == null ? defaultRecentTransactions : limit;
+        if (perAccount < 0) {
+            throw new IllegalArgumentException("Transaction count cannot be negative");
+        }
+        perAccount = Math.min(perAccount, maxRecentTransactions);
+
+        List<AccountSummary> accounts = accountService.getAccountSummariesByUserId(userId);
+        Map<String, List<Transaction>> recent = new LinkedHashMap<>();
+        accounts.forEach(account -> recent.put(account.getAccountNumber(), new ArrayList<>()));
+        if (accounts.isEmpty() || perAccount == 0) {
+            return new Dashboard(userId, accounts, recent);
+        }
+
+        // Per shard holding some of the accounts: ranked (account, id) pairs, then the rows
+        // themselves in one IN query
+        int recentPerAccount = perAccount;
+        shardRouter.groupByShard(recent.keySet()).forEach((shard, accountNumbers) -> shardRouter.readShard(shard, () -> {
+            List<RecentTransactionView> ranked = transactionRepository.findRecentIds(accountNumbers, recentPerAccount);
+            Map<Long, Transaction> rows = transactionRepository
+                    .findAllById(ranked.stream().map(RecentTransactionView::getId).distinct().toList())
+                    .stream()
+                    .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+
+            for (RecentTransactionView entry : ranked) {
+                Transaction transaction = rows.get(entry.getId());
+                if (transaction != null) {
+                    recent.get(entry.getAccountNumber()).add(transaction);
+                }
+            }
+            return null;
+        }));
+        return new Dashboard(userId, accounts, recent);
+    }
+}
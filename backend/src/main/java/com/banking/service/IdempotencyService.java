@@ -0,0 +1,229 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.ledger.LedgerEntry;
+import com.banking.ledger.LedgerService;
+import com.banking.model.IdempotencyKey;
+import com.banking.model.Transaction;
+import com.banking.repository.IdempotencyKeyRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.sharding.ShardRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Runs a posting at most once per user and Idempotency-Key.
+ *
+ * Repeats are answered from a bounded in-memory cache, falling back to the
+ * idempotency_keys table (shared by all nodes). The key row is written in the same
+ * transaction as the posting, so a key is only ever recorded for a committed
+ * transaction. Failed requests are not recorded and may be retried with the same key.
+ * With sharding, a key lives on the shard of the account the request posts from.
+ *
+ * With the ledger engine the key is journaled with the posting instead, and the ledger's
+ * writer inserts the key row together with the transaction row. Until it has, a repeat
+ * finds the posting in the ledger, which is checked before the table.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyKeyRepository keyRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // Present only with banking.ledger.enabled=true
+    @Autowired(required = false)
+    private LedgerService ledgerService;
+
+    private final MeterRegistry meterRegistry;
+    private final Cache<IdempotencyKey.Key, Replay> replays;
+    private final ConcurrentMap<IdempotencyKey.Key, CompletableFuture<Transaction>> inFlight = new ConcurrentHashMap<>();
+    private final TransactionTemplate writeTransaction;
+    private final Duration ttl;
+
+    public IdempotencyService(PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${banking.idempotency.cache-size:100000}") long cacheSize,
+                              @Value("${banking.idempotency.ttl:24h}") Duration ttl) {
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.replays = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, replays, "idempotencyKeys");
+    }
+
+    /**
+     * Run the posting, or return the transaction an earlier request of the same user with
+     * the same key produced. The posting gets the key to journal (null without a key).
+     */
+    public Transaction execute(Long userId, String idempotencyKey, String operation, TransactionRequest request,
+                               Function<LedgerEntry.RequestKey, Transaction> posting) {
+        if (idempotencyKey == null) {
+            return posting.apply(null);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        IdempotencyKey.Key key = new IdempotencyKey.Key(userId, idempotencyKey);
+        String fingerprint = fingerprint(operation, request);
+        String accountNumber = request.getAccountNumber();
+
+        while (true) {
+            Transaction replay = findReplay(key, fingerprint, accountNumber);
+            if (replay != null) {
+                return replay;
+            }
+
+            // Retries on this node wait for the attempt already running instead of racing it
+            CompletableFuture<Transaction> attempt = new CompletableFuture<>();
+            CompletableFuture<Transaction> running = inFlight.putIfAbsent(key, attempt);
+            if (running != null) {
+                try {
+                    running.join();
+                } catch (CompletionException e) {
+                    // The running attempt failed and recorded nothing; try again ourselves
+                }
+                continue;
+            }
+
+            try {
+                Transaction transaction = record(key, fingerprint, accountNumber, posting);
+                attempt.complete(transaction);
+                return transaction;
+            } catch (RuntimeException e) {
+                attempt.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, attempt);
+            }
+        }
+    }
+
+    /**
+     * Drop keys older than the TTL
+     */
+    @Scheduled(fixedDelayString = "${banking.idempotency.cleanup-interval:PT10M}")
+    public int purgeExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        AtomicInteger purged = new AtomicInteger();
+        shardRouter.forEachShard(() -> purged.addAndGet(
+                writeTransaction.execute(status -> keyRepository.deleteCreatedBefore(cutoff))));
+        return purged.get();
+    }
+
+    private Transaction record(IdempotencyKey.Key key, String fingerprint, String accountNumber,
+                               Function<LedgerEntry.RequestKey, Transaction> posting) {
+        if (ledgerService != null) {
+            // The ledger runs on one node, so the in-flight map has already ruled out a concurrent attempt
+            Transaction transaction = posting.apply(
+                    new LedgerEntry.RequestKey(key.getUserId(), key.getKey(), fingerprint));
+            replays.put(key, new Replay(fingerprint, transaction));
+            return transaction;
+        }
+        try {
+            Transaction transaction = shardRouter.onShardOf(accountNumber, () -> writeTransaction.execute(status -> {
+                Transaction posted = posting.apply(null);
+                keyRepository.saveAndFlush(new IdempotencyKey(key.getUserId(), key.getKey(), fingerprint,
+                        posted.getId(), LocalDateTime.now()));
+                return posted;
+            }));
+            replays.put(key, new Replay(fingerprint, transaction));
+            return transaction;
+        } catch (DataIntegrityViolationException e) {
+            // Another node committed the same key first and our posting rolled back; answer with theirs
+            Transaction winner = findReplay(key, fingerprint, accountNumber);
+            if (winner == null) {
+                throw e;
+            }
+            return winner;
+        }
+    }
+
+    private Transaction findReplay(IdempotencyKey.Key key, String fingerprint, String accountNumber) {
+        Replay replay = replays.getIfPresent(key);
+        if (replay != null) {
+            meterRegistry.counter("banking.idempotency.replays", "source", "cache").increment();
+            return replay.transactionFor(fingerprint);
+        }
+
+        // Before the table: a posting leaves the ledger's map only once its key row is committed
+        LedgerEntry pending = ledgerService == null ? null : ledgerService.findUnpersisted(key.getUserId(), key.getKey());
+        if (pending != null) {
+            replay = new Replay(pending.requestKey().fingerprint(), LedgerService.toTransaction(pending));
+            replays.put(key, replay);
+            meterRegistry.counter("banking.idempotency.replays", "source", "ledger").increment();
+            return replay.transactionFor(fingerprint);
+        }
+
+        replay = shardRouter.onShardOf(accountNumber, () -> {
+            IdempotencyKey stored = keyRepository.findById(key).orElse(null);
+            if (stored == null) {
+                return null;
+            }
+            return transactionRepository.findById(stored.getTransactionId())
+                    .map(transaction -> new Replay(stored.getFingerprint(), transaction))
+                    .orElse(null);
+        });
+        if (replay == null) {
+            return null;
+        }
+        replays.put(key, replay);
+        meterRegistry.counter("banking.idempotency.replays", "source", "store").increment();
+        return replay.transactionFor(fingerprint);
+    }
+
+    private static String fingerprint(String operation, TransactionRequest request) {
+        BigDecimal amount = request.getAmount();
+        String fields = String.join("|",
+                operation,
+                String.valueOf(request.getAccountNumber()),
+                String.valueOf(request.getToAccountNumber()),
+                amount == null ? "null" : amount.stripTrailingZeros().toPlainString());
+        return DigestUtils.md5DigestAsHex(fields.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Transaction produced for a key, and the request it was produced for
+     */
+    private record Replay(String fingerprint, Transaction transaction) {
+
+        Transaction transactionFor(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+            }
+            return transaction;
+        }
+    }
+}
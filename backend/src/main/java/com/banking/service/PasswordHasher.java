@@ -0,0 +1,154 @@
+package com.banking.service;
+
+import com.banking.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt password hashing on a small dedicated pool.
+ *
+ * A BCrypt round costs tens of milliseconds of CPU, so a burst of logins run on request
+ * threads would crowd out transactions. Hashing runs on at most {@code hashing-threads}
+ * threads (half the CPUs by default) behind a bounded queue; when the queue is full or a
+ * caller waits longer than the timeout, the login fails fast with a 503 instead of piling up.
+ * With {@code hashing-threads=0} hashing runs inline on the request thread.
+ *
+ * Stored values that are not BCrypt hashes are treated as legacy plaintext passwords.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String BCRYPT_PREFIX = "$2";
+
+    private final BCryptPasswordEncoder encoder;
+    private final String dummyHash;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter queueFull;
+    private final Counter timedOut;
+
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${banking.password.bcrypt-strength:10}") int strength,
+                          @Value("${banking.password.hashing-threads:#{null}}") Integer hashingThreads,
+                          @Value("${banking.password.queue-capacity:32}") int queueCapacity,
+                          @Value("${banking.password.timeout:5s}") Duration timeout) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        // Same strength as real hashes, so checking against it takes as long
+        this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+        this.timeout = timeout;
+
+        int threads = hashingThreads != null
+                ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        if (threads > 0) {
+            BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue,
+                    Thread.ofPlatform().name("password-hash-", 1).daemon().factory(),
+                    new ThreadPoolExecutor.AbortPolicy());
+            meterRegistry.gauge("banking.password.queue.depth", queue, BlockingQueue::size);
+        } else {
+            this.executor = null;
+        }
+
+        this.hashTimer = meterRegistry.timer("banking.password.hashing", "operation", "hash");
+        this.verifyTimer = meterRegistry.timer("banking.password.hashing", "operation", "verify");
+        this.queueFull = meterRegistry.counter("banking.password.rejected", "reason", "queue_full");
+        this.timedOut = meterRegistry.counter("banking.password.rejected", "reason", "timeout");
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Hash a password at the configured strength
+     */
+    public String hash(String rawPassword) {
+        return run(() -> encoder.encode(rawPassword), hashTimer);
+    }
+
+    /**
+     * Check a password against a stored BCrypt hash or legacy plaintext value
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (!isHashed(storedPassword)) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return run(() -> encoder.matches(rawPassword, storedPassword), verifyTimer);
+    }
+
+    /**
+     * Do the work of a BCrypt check when there is no stored hash to check against (unknown
+     * username), so the response time does not reveal which usernames exist
+     */
+    public void matchNothing(String rawPassword) {
+        run(() -> encoder.matches(rawPassword, dummyHash), verifyTimer);
+    }
+
+    /**
+     * Whether a stored value is plaintext or was hashed at a lower strength than configured
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    private static boolean isHashed(String storedPassword) {
+        return storedPassword.startsWith(BCRYPT_PREFIX);
+    }
+
+    private <T> T run(Supplier<T> work, Timer timer) {
+        if (executor == null) {
+            return timer.record(work);
+        }
+
+        Future<T> result;
+        try {
+            result = executor.submit(() -> timer.record(work));
+        } catch (RejectedExecutionException e) {
+            queueFull.increment();
+            throw new ServiceUnavailableException("Too many logins in progress, please retry shortly");
+        }
+
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            timedOut.increment();
+            throw new ServiceUnavailableException("Too many logins in progress, please retry shortly");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
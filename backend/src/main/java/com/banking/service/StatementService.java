@@ -0,0 +1,182 @@
+package com.banking.service;
+
+import com.banking.model.Transaction;
+import com.banking.repository.TransactionRepository;
+import com.banking.sharding.ShardKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service layer for streaming account statements (CSV / NDJSON)
+ */
+@Service
+public class StatementService {
+
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    // Oldest first, id breaks ties between rows with the same timestamp
+    private static final Comparator<Transaction> OLDEST_FIRST = Comparator
+            .comparing(Transaction::getTransactionDate)
+            .thenComparing(Transaction::getId);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Supported export formats
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+
+    /**
+     * Validate an export before any bytes are written, so errors still map to JSON responses
+     */
+    public void validateExport(String accountNumber, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        accountService.getAccountByNumber(accountNumber);
+    }
+
+    /**
+     * Stream all transactions of an account between two dates (inclusive) to the output.
+     * Sent and received rows are read through one database cursor each, both range scans of
+     * their (account, date, id) index, merged by date and detached as they are written,
+     * so memory stays constant regardless of history size. Returns the row count.
+     */
+    @Transactional(readOnly = true)
+    public long exportStatement(@ShardKey String accountNumber, LocalDate from, LocalDate to,
+                                Format format, OutputStream out) throws IOException {
+        LocalDateTime start = (from != null ? from : EARLIEST).atStartOfDay();
+        LocalDateTime end = (to != null ? to : LocalDate.now()).plusDays(1).atStartOfDay();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write("id,date,type,amount,from_account,to_account,status,description\n");
+        }
+
+        long count = 0;
+        try (Stream<Transaction> sentRows = transactionRepository.streamSentStatement(accountNumber, start, end);
+             Stream<Transaction> receivedRows = transactionRepository.streamReceivedStatement(accountNumber, start, end)) {
+            Iterator<Transaction> sent = sentRows.iterator();
+            Iterator<Transaction> received = receivedRows.iterator();
+            Transaction nextSent = sent.hasNext() ? sent.next() : null;
+            Transaction nextReceived = received.hasNext() ? received.next() : null;
+            while (nextSent != null || nextReceived != null) {
+                Transaction transaction;
+                if (nextReceived == null || (nextSent != null && OLDEST_FIRST.compare(nextSent, nextReceived) <= 0)) {
+                    transaction = nextSent;
+                    nextSent = sent.hasNext() ? sent.next() : null;
+                } else {
+                    transaction = nextReceived;
+                    nextReceived = received.hasNext() ? received.next() : null;
+                }
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, transaction);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(transaction));
+                    writer.write('\n');
+                }
+                // Keep the persistence context from growing with the export
+                entityManager.detach(transaction);
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Write a single CSV row
+     */
+    private void writeCsvRow(Writer writer, Transaction transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getTransactionDate()));
+        writer.write(',');
+        writer.write(transaction.getType().name());
+        writer.write(',');
+        writer.write(transaction.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(transaction.getFromAccount() != null ? transaction.getFromAccount() : "");
+        writer.write(',');
+        writer.write(transaction.getToAccount() != null ? transaction.getToAccount() : "");
+        writer.write(',');
+        writer.write(transaction.getStatus().name());
+        writer.write(',');
+        writer.write(csvEscape(transaction.getDescription()));
+        writer.write('\n');
+    }
+
+    /**
+     * Quote a CSV field if it contains separators, quotes or line breaks. Text a spreadsheet
+     * would run as a formula (leading =, +, -, @, tab or carriage return) is prefixed with a
+     * single quote so it opens as plain text.
+     */
+    private String csvEscape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,309 @@
+package com.banking.service;
+
+import com.banking.exception.ResourceNotFoundException;
+import com.banking.model.Account;
+import com.banking.model.AccountBalanceSlot;
+import com.banking.model.AccountDailyActivity;
+import com.banking.model.Transaction;
+import com.banking.repository.AccountBalanceSlotRepository;
+import com.banking.repository.AccountRepository;
+import com.banking.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Striped balances for hot accounts (banking.striping.accounts).
+ *
+ * Every deposit to an account updates its one row, so deposits to a busy merchant account
+ * queue on that row lock. A striped account also has banking.striping.slots balance slots;
+ * each deposit adds to a random slot, so concurrent deposits mostly lock different rows.
+ * The balance is the account row plus its slots: withdrawals lock the account row and check
+ * the sum, and fold the slots into the row first when the row alone falls short; reads add
+ * the slots in with the row in one statement on the primary. Deposits are counted in the slot as well and reach the
+ * activity totals when the slots are consolidated into the account row, which happens every
+ * banking.striping.consolidation-interval. Transfers into a striped account credit its row
+ * as usual. Striping has no effect with the ledger engine, which keeps balances in memory.
+ */
+@Service
+public class StripedBalances {
+
+    private static final Logger log = LoggerFactory.getLogger(StripedBalances.class);
+
+    @Autowired
+    private AccountBalanceSlotRepository slotRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Activity reads add the pending slot deposits in, so the dependency runs both ways
+    @Lazy
+    @Autowired
+    private AccountActivityService activityService;
+
+    private final Set<String> accounts;
+    private final int slots;
+    private final Counter slotDeposits;
+    private final Counter rollovers;
+    private final TransactionTemplate primaryRead;
+
+    public StripedBalances(MeterRegistry meterRegistry,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${banking.striping.accounts:}") List<String> accounts,
+                           @Value("${banking.striping.slots:16}") int slots,
+                           @Value("${banking.ledger.enabled:false}") boolean ledgerEnabled) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("banking.striping.slots must be at least 1");
+        }
+        Set<String> striped = accounts.stream()
+                .map(String::trim)
+                .filter(accountNumber -> !accountNumber.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        if (ledgerEnabled && !striped.isEmpty()) {
+            log.warn("banking.striping.accounts is ignored with banking.ledger.enabled=true");
+            striped = Set.of();
+        }
+        this.accounts = striped;
+        this.slots = slots;
+        this.slotDeposits = meterRegistry.counter("banking.striping.deposits");
+        this.rollovers = meterRegistry.counter("banking.striping.rollovers");
+        // Read-write so the read replica routing leaves it on the primary
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isStriped(String accountNumber) {
+        return accounts.contains(accountNumber);
+    }
+
+    /**
+     * Add a saved deposit to a random slot of its account. Returns false when the account is
+     * not striped (or its slots are not set up yet) and the deposit must credit the account row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean deposit(Transaction deposit) {
+        String accountNumber = deposit.getToAccount();
+        if (!isStriped(accountNumber)) {
+            return false;
+        }
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        LocalDate day = deposit.getTransactionDate().toLocalDate();
+        accountCache.evict(accountNumber);
+        if (slotRepository.addDeposit(accountNumber, slot, day, deposit.getAmount()) == 1) {
+            slotDeposits.increment();
+            return true;
+        }
+
+        // The slot still counts an earlier day: hand those deposits to the activity totals first
+        AccountBalanceSlot current = slotRepository.findForUpdate(accountNumber, slot).orElse(null);
+        if (current == null) {
+            return false;
+        }
+        if (!day.equals(current.getActivityDate())) {
+            if (current.getDepositCount() > 0) {
+                activityService.recordDeposits(accountNumber, Map.of(current.getActivityDate(), depositsOf(current)));
+            }
+            slotRepository.startDay(accountNumber, slot, day);
+            rollovers.increment();
+        }
+        if (slotRepository.addDeposit(accountNumber, slot, day, deposit.getAmount()) == 0) {
+            // Not expected while the slot is locked; the account row takes the deposit instead
+            return false;
+        }
+        slotDeposits.increment();
+        return true;
+    }
+
+    /**
+     * Debit a striped account only if its row and slots together cover the amount.
+     * Returns false when funds are insufficient.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean debit(String accountNumber, BigDecimal amount) {
+        // The row lock keeps withdrawals and consolidation apart; deposits only ever add
+        Account account = accountRepository.findLockedByAccountNumber(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
+        if (account.getBalance().add(slotRepository.sumBalance(accountNumber)).compareTo(amount) < 0) {
+            return false;
+        }
+        accountCache.evict(accountNumber);
+        if (account.getBalance().compareTo(amount) < 0) {
+            // The row alone falls short: fold the slots into it under the same lock
+            accountRepository.creditBalance(accountNumber, takeSlots(accountNumber));
+        }
+        return accountRepository.debitBalance(accountNumber, amount) == 1;
+    }
+
+    /**
+     * Balance held in the slots of an account and not yet consolidated, read in the
+     * caller's transaction (which should hold the account row lock)
+     */
+    public BigDecimal pendingBalance(String accountNumber) {
+        if (!isStriped(accountNumber)) {
+            return BigDecimal.ZERO;
+        }
+        return slotRepository.sumBalance(accountNumber);
+    }
+
+    /**
+     * Balance of a striped account: its row plus its slots, read in one statement on the primary
+     */
+    public BigDecimal balance(String accountNumber) {
+        Supplier<BigDecimal> read = () -> accountRepository.findBalanceWithSlots(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Already on the primary, and this sees the caller's own writes
+            return read.get();
+        }
+        if (shardRouter.isEnabled()) {
+            return shardRouter.writeShard(shardRouter.shardOf(accountNumber), read);
+        }
+        return primaryRead.execute(status -> read.get());
+    }
+
+    /**
+     * The account with its slot balance included; a copy, the entity is left alone
+     */
+    public Account withPendingBalance(Account account) {
+        if (!isStriped(account.getAccountNumber())) {
+            return account;
+        }
+        return account.withBalance(balance(account.getAccountNumber()));
+    }
+
+    /**
+     * Empty the slots of an account whose row the caller has locked and return what they
+     * held, which the caller must add to the row. Their deposits go to the activity totals.
+     */
+    BigDecimal takeSlots(String accountNumber) {
+        return emptySlots(accountNumber, new HashSet<>());
+    }
+
+    /**
+     * Deposits held in the slots of an account and not yet in its activity totals, by day
+     */
+    public Map<LocalDate, AccountDailyActivity> pendingDeposits(String accountNumber) {
+        Map<LocalDate, AccountDailyActivity> pending = new TreeMap<>();
+        if (!isStriped(accountNumber)) {
+            return pending;
+        }
+        for (AccountBalanceSlot slot : slotRepository.findByAccountNumber(accountNumber)) {
+            if (slot.getDepositCount() > 0) {
+                pending.computeIfAbsent(slot.getActivityDate(), day -> new AccountDailyActivity(accountNumber, day))
+                        .add(depositsOf(slot));
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Stop counting the deposits held in the slots of an account (once its totals have been
+     * rebuilt from the transactions); the slot balances stay
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void forgetPendingDeposits(String accountNumber) {
+        slotRepository.clearDeposits(accountNumber);
+    }
+
+    /**
+     * Fold the slots of every striped account into its row and activity totals, and set up
+     * missing slots. Slots of accounts no longer striped are folded in and dropped.
+     */
+    @Scheduled(fixedDelayString = "${banking.striping.consolidation-interval:PT5S}")
+    public void consolidate() {
+        for (String accountNumber : accounts) {
+            shardRouter.onShardOf(accountNumber,
+                    () -> transactionTemplate.execute(status -> consolidate(accountNumber, slots)));
+        }
+        shardRouter.forEachShard(() -> {
+            for (String accountNumber : slotRepository.findAccountNumbers()) {
+                if (!isStriped(accountNumber)) {
+                    transactionTemplate.execute(status -> consolidate(accountNumber, 0));
+                }
+            }
+        });
+    }
+
+    private boolean consolidate(String accountNumber, int keep) {
+        // Same lock order as a withdrawal: the account row, then the slots, then the totals
+        if (accountRepository.findLockedByAccountNumber(accountNumber).isEmpty()) {
+            slotRepository.deleteFrom(accountNumber, 0);
+            return false;
+        }
+        Set<Integer> present = new HashSet<>();
+        BigDecimal balance = emptySlots(accountNumber, present);
+
+        LocalDate today = LocalDate.now();
+        slotRepository.deleteFrom(accountNumber, keep);
+        for (int slot = 0; slot < keep; slot++) {
+            if (!present.contains(slot)) {
+                slotRepository.save(new AccountBalanceSlot(accountNumber, slot, today));
+            }
+        }
+        if (balance.signum() != 0) {
+            accountCache.evict(accountNumber);
+            accountRepository.creditBalance(accountNumber, balance);
+        }
+        return true;
+    }
+
+    private BigDecimal emptySlots(String accountNumber, Set<Integer> present) {
+        List<AccountBalanceSlot> current = slotRepository.findAllForUpdate(accountNumber);
+        BigDecimal balance = BigDecimal.ZERO;
+        Map<LocalDate, AccountDailyActivity> deposits = new TreeMap<>();
+        for (AccountBalanceSlot slot : current) {
+            present.add(slot.getSlot());
+            balance = balance.add(slot.getBalance());
+            if (slot.getDepositCount() > 0) {
+                deposits.computeIfAbsent(slot.getActivityDate(), day -> new AccountDailyActivity(accountNumber, day))
+                        .add(depositsOf(slot));
+            }
+        }
+
+        slotRepository.reset(accountNumber, LocalDate.now());
+        if (!deposits.isEmpty()) {
+            activityService.recordDeposits(accountNumber, deposits);
+        }
+        return balance;
+    }
+
+    private static AccountDailyActivity depositsOf(AccountBalanceSlot slot) {
+        AccountDailyActivity deposits = new AccountDailyActivity(slot.getAccountNumber(), slot.getActivityDate());
+        deposits.setDepositCount(slot.getDepositCount());
+        deposits.setDepositAmount(slot.getDepositAmount());
+        return deposits;
+    }
+}
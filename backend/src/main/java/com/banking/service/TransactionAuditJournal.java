@@ -0,0 +1,145 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionAudit;
+import com.banking.repository.TransactionAuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of rejected transaction attempts.
+ *
+ * Request threads only enqueue; a single writer thread drains the bounded queue and
+ * inserts in batches in its own transaction, so the audit row survives the rollback
+ * of the rejected posting. When the queue is full new records are dropped and counted
+ * rather than slowing down requests.
+ */
+@Component
+public class TransactionAuditJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionAuditJournal.class);
+
+    @Autowired
+    private TransactionAuditRepository auditRepository;
+
+    private final BlockingQueue<TransactionAudit> queue;
+    private final TransactionTemplate writeTransaction;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public TransactionAuditJournal(PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${banking.audit.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${banking.audit.batch-size:500}") int batchSize,
+                                   @Value("${banking.audit.flush-interval:200ms}") Duration flushInterval) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+
+        // Never join the caller's transaction; audit rows commit on their own
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        meterRegistry.gauge("banking.audit.queue.depth", queue, BlockingQueue::size);
+        this.written = meterRegistry.counter("banking.audit.records", "outcome", "written");
+        this.dropped = meterRegistry.counter("banking.audit.records", "outcome", "dropped");
+        this.failed = meterRegistry.counter("banking.audit.records", "outcome", "failed");
+    }
+
+    @PostConstruct
+    void start() {
+        writer = Thread.ofPlatform().name("transaction-audit-writer").daemon().start(this::drainLoop);
+    }
+
+    /**
+     * Flush what is queued before the data source goes away
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // The writer notices within one flush interval, drains the queue and exits
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queue a rejected attempt; never blocks
+     */
+    public void rejected(Transaction.TransactionType type, TransactionRequest request, String reason) {
+        TransactionAudit audit = new TransactionAudit();
+        audit.setType(type);
+        audit.setAmount(request.getAmount());
+        audit.setFromAccount(type == Transaction.TransactionType.DEPOSIT ? null : clip(request.getAccountNumber(), 20));
+        audit.setToAccount(type == Transaction.TransactionType.DEPOSIT
+                ? clip(request.getAccountNumber(), 20)
+                : clip(request.getToAccountNumber(), 20));
+        audit.setReason(clip(reason, 255));
+        audit.setDescription(clip(request.getDescription(), 255));
+        audit.setAttemptedAt(LocalDateTime.now());
+
+        if (!queue.offer(audit)) {
+            dropped.increment();
+        }
+    }
+
+    private void drainLoop() {
+        List<TransactionAudit> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                TransactionAudit first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Treat as shutdown: flush what is left and exit
+                running = false;
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            flush(batch);
+        }
+    }
+
+    private void flush(List<TransactionAudit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writeTransaction.executeWithoutResult(status -> auditRepository.saveAll(batch));
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.warn("Failed to write {} transaction audit records", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private static String clip(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
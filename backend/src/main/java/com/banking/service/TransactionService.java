@@ -1,15 +1,36 @@
 package com.banking.service;
 
+import com.banking.dto.TransactionPage;
 import com.banking.dto.TransactionRequest;
-import com.banking.model.Account;
+import com.banking.events.TransactionPostedEvent;
+import com.banking.exception.ResourceNotFoundException;
+import com.banking.ledger.LedgerEntry;
+import com.banking.ledger.LedgerService;
 import com.banking.model.Transaction;
 import com.banking.repository.TransactionRepository;
+import com.banking.sharding.CrossShardTransfers;
+import com.banking.sharding.ShardKey;
+import com.banking.sharding.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer for Transaction-related business logic
@@ -23,132 +44,342 @@ public class TransactionService {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private TransactionAuditJournal auditJournal;
+
+    @Autowired
+    private AccountActivityService activityService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    // Present only with banking.ledger.enabled=true
+    @Autowired(required = false)
+    private LedgerService ledgerService;
+
+    // Present only with banking.sharding.enabled=true
+    @Autowired(required = false)
+    private CrossShardTransfers crossShardTransfers;
+
+    // Present only with banking.transfers.async.enabled=true
+    @Autowired(required = false)
+    private TransferPipeline transferPipeline;
+
+    @Value("${banking.transactions.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${banking.transactions.page.max-size:100}")
+    private int maxPageSize;
+
+    // Newest first, id breaks ties between rows with the same timestamp
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getTransactionDate)
+            .thenComparing(Transaction::getId)
+            .reversed();
+
     /**
      * Deposit money into an account
      */
-    @Transactional
     public Transaction deposit(TransactionRequest request) {
+        return deposit(request, null);
+    }
+
+    /**
+     * Deposit money into an account under an Idempotency-Key; the ledger journals the key
+     * with the posting, the relational path leaves recording it to the caller's transaction
+     */
+    public Transaction deposit(TransactionRequest request, LedgerEntry.RequestKey requestKey) {
         // Validate amount
         if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Deposit amount must be positive");
+            throw rejected(Transaction.TransactionType.DEPOSIT, request, "Deposit amount must be positive");
         }
+        accountService.rejectUnknownAccount(request.getAccountNumber());
 
-        // Get account
-        Account account = accountService.getAccountByNumber(request.getAccountNumber());
-
-        // Update balance
-        BigDecimal newBalance = account.getBalance().add(request.getAmount());
-        accountService.updateBalance(account, newBalance);
+        if (ledgerService != null) {
+            return posted(ledgerService.post(Transaction.TransactionType.DEPOSIT, request, "Deposit", requestKey));
+        }
 
-        // Create transaction record
-        Transaction transaction = new Transaction();
-        transaction.setType(Transaction.TransactionType.DEPOSIT);
-        transaction.setAmount(request.getAmount());
-        transaction.setToAccount(request.getAccountNumber());
-        transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
-        transaction.setDescription(request.getDescription() != null ? request.getDescription() : "Deposit");
+        return shardRouter.onShardOf(request.getAccountNumber(), () -> transactionTemplate.execute(status -> {
+            // Create transaction record
+            Transaction transaction = new Transaction();
+            transaction.setType(Transaction.TransactionType.DEPOSIT);
+            transaction.setAmount(request.getAmount());
+            transaction.setToAccount(request.getAccountNumber());
+            transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
+            transaction.setDescription(request.getDescription() != null ? request.getDescription() : "Deposit");
 
-        return transactionRepository.save(transaction);
+            Transaction saved = transactionRepository.save(transaction);
+            // Hot accounts take deposits in a balance slot; others update the balance in place
+            if (!stripedBalances.deposit(saved)) {
+                accountService.credit(request.getAccountNumber(), request.getAmount());
+                activityService.record(saved);
+            }
+            return posted(saved);
+        }));
     }
 
     /**
      * Withdraw money from an account
      */
-    @Transactional
     public Transaction withdraw(TransactionRequest request) {
+        return withdraw(request, null);
+    }
+
+    /**
+     * Withdraw money from an account under an Idempotency-Key (see {@link #deposit(TransactionRequest, LedgerEntry.RequestKey)})
+     */
+    public Transaction withdraw(TransactionRequest request, LedgerEntry.RequestKey requestKey) {
         // Validate amount
         if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Withdrawal amount must be positive");
+            throw rejected(Transaction.TransactionType.WITHDRAW, request, "Withdrawal amount must be positive");
         }
+        accountService.rejectUnknownAccount(request.getAccountNumber());
 
-        // Get account
-        Account account = accountService.getAccountByNumber(request.getAccountNumber());
-
-        // Check sufficient balance
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
-            Transaction failedTransaction = new Transaction();
-            failedTransaction.setType(Transaction.TransactionType.WITHDRAW);
-            failedTransaction.setAmount(request.getAmount());
-            failedTransaction.setFromAccount(request.getAccountNumber());
-            failedTransaction.setStatus(Transaction.TransactionStatus.FAILED);
-            failedTransaction.setDescription("Insufficient balance");
-            transactionRepository.save(failedTransaction);
-
-            throw new IllegalArgumentException("Insufficient balance");
+        if (ledgerService != null) {
+            Transaction transaction = ledgerService.post(Transaction.TransactionType.WITHDRAW, request, "Withdrawal", requestKey);
+            if (transaction == null) {
+                throw insufficientBalance(Transaction.TransactionType.WITHDRAW, request);
+            }
+            return posted(transaction);
         }
 
-        // Update balance
-        BigDecimal newBalance = account.getBalance().subtract(request.getAmount());
-        accountService.updateBalance(account, newBalance);
+        return shardRouter.onShardOf(request.getAccountNumber(), () -> transactionTemplate.execute(status -> {
+            // Debit guarded by the balance check; no row updated means insufficient funds
+            if (!accountService.debit(request.getAccountNumber(), request.getAmount())) {
+                throw insufficientBalance(Transaction.TransactionType.WITHDRAW, request);
+            }
 
-        // Create transaction record
-        Transaction transaction = new Transaction();
-        transaction.setType(Transaction.TransactionType.WITHDRAW);
-        transaction.setAmount(request.getAmount());
-        transaction.setFromAccount(request.getAccountNumber());
-        transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
-        transaction.setDescription(request.getDescription() != null ? request.getDescription() : "Withdrawal");
+            // Create transaction record
+            Transaction transaction = new Transaction();
+            transaction.setType(Transaction.TransactionType.WITHDRAW);
+            transaction.setAmount(request.getAmount());
+            transaction.setFromAccount(request.getAccountNumber());
+            transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
+            transaction.setDescription(request.getDescription() != null ? request.getDescription() : "Withdrawal");
 
-        return transactionRepository.save(transaction);
+            Transaction saved = transactionRepository.save(transaction);
+            activityService.record(saved);
+            return posted(saved);
+        }));
     }
 
     /**
      * Transfer money between accounts
      */
-    @Transactional
     public Transaction transfer(TransactionRequest request) {
+        return transfer(request, null);
+    }
+
+    /**
+     * Transfer money between accounts under an Idempotency-Key (see {@link #deposit(TransactionRequest, LedgerEntry.RequestKey)})
+     */
+    public Transaction transfer(TransactionRequest request, LedgerEntry.RequestKey requestKey) {
+        validateTransfer(request);
+
+        if (ledgerService != null) {
+            Transaction transaction = ledgerService.post(Transaction.TransactionType.TRANSFER, request, "Transfer", requestKey);
+            if (transaction == null) {
+                throw insufficientBalance(Transaction.TransactionType.TRANSFER, request);
+            }
+            return posted(transaction);
+        }
+
+        if (crossShardTransfers != null && !shardRouter.sameShard(request.getAccountNumber(), request.getToAccountNumber())) {
+            // No transaction spans two shards; the saga debits here and credits there, and
+            // announces the posting once both sides are applied
+            Transaction transaction = crossShardTransfers.transfer(request,
+                    request.getDescription() != null ? request.getDescription() : "Transfer");
+            if (transaction == null) {
+                throw insufficientBalance(Transaction.TransactionType.TRANSFER, request);
+            }
+            return transaction;
+        }
+
+        return shardRouter.onShardOf(request.getAccountNumber(), () -> transactionTemplate.execute(status -> {
+            // Touch rows in account number order so opposite transfers cannot deadlock
+            boolean debitFirst = request.getAccountNumber().compareTo(request.getToAccountNumber()) <= 0;
+            if (!debitFirst) {
+                accountService.credit(request.getToAccountNumber(), request.getAmount());
+            }
+
+            // Debit guarded by the balance check; no row updated means insufficient funds
+            if (!accountService.debit(request.getAccountNumber(), request.getAmount())) {
+                throw insufficientBalance(Transaction.TransactionType.TRANSFER, request);
+            }
+
+            if (debitFirst) {
+                accountService.credit(request.getToAccountNumber(), request.getAmount());
+            }
+
+            // Create transaction record
+            Transaction transaction = new Transaction();
+            transaction.setType(Transaction.TransactionType.TRANSFER);
+            transaction.setAmount(request.getAmount());
+            transaction.setFromAccount(request.getAccountNumber());
+            transaction.setToAccount(request.getToAccountNumber());
+            transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
+            transaction.setDescription(request.getDescription() != null ? request.getDescription() : "Transfer");
+
+            Transaction saved = transactionRepository.save(transaction);
+            activityService.record(saved);
+            return posted(saved);
+        }));
+    }
+
+    /**
+     * Accept a transfer as PENDING and settle it in the background; it runs synchronously
+     * when the asynchronous pipeline is not enabled
+     */
+    public Transaction submitTransfer(TransactionRequest request) {
+        return submitTransfer(request, null);
+    }
+
+    /**
+     * Accept a transfer made under an Idempotency-Key; the key only reaches the ledger, which
+     * cannot be combined with the pipeline
+     */
+    public Transaction submitTransfer(TransactionRequest request, LedgerEntry.RequestKey requestKey) {
+        if (transferPipeline == null) {
+            return transfer(request, requestKey);
+        }
+        validateTransfer(request);
+        return transferPipeline.submit(request, request.getDescription() != null ? request.getDescription() : "Transfer");
+    }
+
+    /**
+     * Get a transaction by id, e.g. to follow a PENDING transfer
+     */
+    @Transactional(readOnly = true)
+    public Transaction getTransaction(Long id) {
+        // Ids are unique across shards, so at most one shard has it
+        return shardRouter.readEveryShard(() -> transactionRepository.findById(id).stream().toList())
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
+    }
+
+    private void validateTransfer(TransactionRequest request) {
         // Validate amount
         if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Transfer amount must be positive");
+            throw rejected(Transaction.TransactionType.TRANSFER, request, "Transfer amount must be positive");
         }
 
         // Validate destination account
         if (request.getToAccountNumber() == null || request.getToAccountNumber().isEmpty()) {
-            throw new IllegalArgumentException("Destination account number is required");
+            throw rejected(Transaction.TransactionType.TRANSFER, request, "Destination account number is required");
         }
 
-        // Get accounts
-        Account fromAccount = accountService.getAccountByNumber(request.getAccountNumber());
-        Account toAccount = accountService.getAccountByNumber(request.getToAccountNumber());
-
-        // Check sufficient balance
-        if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
-            Transaction failedTransaction = new Transaction();
-            failedTransaction.setType(Transaction.TransactionType.TRANSFER);
-            failedTransaction.setAmount(request.getAmount());
-            failedTransaction.setFromAccount(request.getAccountNumber());
-            failedTransaction.setToAccount(request.getToAccountNumber());
-            failedTransaction.setStatus(Transaction.TransactionStatus.FAILED);
-            failedTransaction.setDescription("Insufficient balance");
-            transactionRepository.save(failedTransaction);
-
-            throw new IllegalArgumentException("Insufficient balance");
-        }
-
-        // Update balances
-        BigDecimal fromNewBalance = fromAccount.getBalance().subtract(request.getAmount());
-        BigDecimal toNewBalance = toAccount.getBalance().add(request.getAmount());
+        // Mistyped account numbers are turned away before any database work
+        accountService.rejectUnknownAccount(request.getAccountNumber());
+        accountService.rejectUnknownAccount(request.getToAccountNumber());
+    }
 
-        accountService.updateBalance(fromAccount, fromNewBalance);
-        accountService.updateBalance(toAccount, toNewBalance);
+    /**
+     * Journal a rejected attempt (outside the transaction that is about to roll back)
+     * and build the exception to throw
+     */
+    private IllegalArgumentException rejected(Transaction.TransactionType type, TransactionRequest request, String reason) {
+        auditJournal.rejected(type, request, reason);
+        return new IllegalArgumentException(reason);
+    }
 
-        // Create transaction record
-        Transaction transaction = new Transaction();
-        transaction.setType(Transaction.TransactionType.TRANSFER);
-        transaction.setAmount(request.getAmount());
-        transaction.setFromAccount(request.getAccountNumber());
-        transaction.setToAccount(request.getToAccountNumber());
-        transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
-        transaction.setDescription(request.getDescription() != null ? request.getDescription() : "Transfer");
+    /**
+     * Announce a successful posting; listeners see it once the surrounding transaction commits
+     */
+    private Transaction posted(Transaction transaction) {
+        eventPublisher.publishEvent(new TransactionPostedEvent(transaction));
+        return transaction;
+    }
 
-        return transactionRepository.save(transaction);
+    private IllegalArgumentException insufficientBalance(Transaction.TransactionType type, TransactionRequest request) {
+        meterRegistry.counter("banking.transactions.insufficient_balance", "type", type.name()).increment();
+        return rejected(type, request, "Insufficient balance");
     }
 
     /**
      * Get transaction history for an account
      */
-    public List<Transaction> getTransactionHistory(String accountNumber) {
+    @Transactional(readOnly = true)
+    public List<Transaction> getTransactionHistory(@ShardKey String accountNumber) {
         return transactionRepository.findByFromAccountOrToAccountOrderByTransactionDateDesc(
                 accountNumber, accountNumber);
     }
+
+    /**
+     * Get one page of transaction history using a keyset cursor.
+     * Each side (sent / received) is a bounded range scan on its (account, date, id) index.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionPage(@ShardKey String accountNumber, String cursor, Integer size) {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        pageSize = Math.min(pageSize, maxPageSize);
+
+        // Fetch one extra row per side to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Transaction> sent;
+        List<Transaction> received;
+        if (cursor == null || cursor.isEmpty()) {
+            sent = transactionRepository.findFromAccountPage(accountNumber, limit);
+            received = transactionRepository.findToAccountPage(accountNumber, limit);
+        } else {
+            Transaction last = decodeCursor(cursor);
+            sent = transactionRepository.findFromAccountPageAfter(
+                    accountNumber, last.getTransactionDate(), last.getId(), limit);
+            received = transactionRepository.findToAccountPageAfter(
+                    accountNumber, last.getTransactionDate(), last.getId(), limit);
+        }
+
+        // Merge both sides; a transfer to the same account shows up in both
+        Map<Long, Transaction> merged = new LinkedHashMap<>();
+        sent.forEach(t -> merged.put(t.getId(), t));
+        received.forEach(t -> merged.putIfAbsent(t.getId(), t));
+        List<Transaction> rows = new ArrayList<>(merged.values());
+        rows.sort(NEWEST_FIRST);
+
+        if (rows.size() <= pageSize) {
+            return new TransactionPage(rows, null);
+        }
+        List<Transaction> page = new ArrayList<>(rows.subList(0, pageSize));
+        return new TransactionPage(page, encodeCursor(page.get(page.size() - 1)));
+    }
+
+    /**
+     * Encode the position of the last row returned as an opaque cursor
+     */
+    private String encodeCursor(Transaction last) {
+        String position = last.getTransactionDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor back into the (date, id) position it points after
+     */
+    private Transaction decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf('|');
+            Transaction last = new Transaction();
+            last.setTransactionDate(LocalDateTime.parse(position.substring(0, separator)));
+            last.setId(Long.parseLong(position.substring(separator + 1)));
+            return last;
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 }
@@ -0,0 +1,295 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.events.TransactionPostedEvent;
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous transfers (banking.transfers.async.enabled=true).
+ *
+ * A submitted transfer is stored as PENDING and its id queued; the request returns without
+ * touching any account. A single worker drains the queue in micro-batches and settles each
+ * batch in one transaction: it locks the batch's PENDING rows, then every account involved
+ * in account number order (the order synchronous transfers use, so neither can deadlock the
+ * other), applies the transfers in submission order against the locked balances, and writes
+ * one balance update per account. Transfers the balance cannot cover end up FAILED.
+ *
+ * The table is the source of truth: ids dropped by a full queue or lost in a restart are
+ * picked up again by a periodic scan for transfers pending longer than retry-after. The
+ * ledger engine and sharding post transfers their own way and cannot be combined with this.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.transfers.async.enabled", havingValue = "true")
+public class TransferPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferPipeline.class);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private AccountActivityService activityService;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    @Autowired
+    private TransactionAuditJournal auditJournal;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final BlockingQueue<Long> queue;
+    private final TransactionTemplate writeTransaction;
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final Duration retryAfter;
+    private final MeterRegistry meterRegistry;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter overflows;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public TransferPipeline(PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${banking.transfers.async.queue-capacity:10000}") int queueCapacity,
+                            @Value("${banking.transfers.async.batch-size:200}") int batchSize,
+                            @Value("${banking.transfers.async.poll-interval:5ms}") Duration pollInterval,
+                            @Value("${banking.transfers.async.retry-after:30s}") Duration retryAfter,
+                            @Value("${banking.ledger.enabled:false}") boolean ledgerEnabled,
+                            @Value("${banking.sharding.enabled:false}") boolean shardingEnabled) {
+        if (ledgerEnabled || shardingEnabled) {
+            throw new IllegalStateException("banking.transfers.async.enabled cannot be combined with "
+                    + (ledgerEnabled ? "banking.ledger.enabled" : "banking.sharding.enabled"));
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.retryAfter = retryAfter;
+
+        // Each batch commits on its own, whatever thread it runs on
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("banking.transfers.async.queue.depth", queue, BlockingQueue::size);
+        this.succeeded = meterRegistry.counter("banking.transfers.async", "outcome", "success");
+        this.failed = meterRegistry.counter("banking.transfers.async", "outcome", "failed");
+        this.overflows = meterRegistry.counter("banking.transfers.async.overflows");
+        this.batchSizes = DistributionSummary.builder("banking.transfers.async.batch.size").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        worker = Thread.ofPlatform().name("transfer-pipeline").daemon().start(this::drainLoop);
+    }
+
+    /**
+     * Settle what is queued before the data source goes away
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Record a validated transfer as PENDING and queue it once the record has committed
+     */
+    public Transaction submit(TransactionRequest request, String description) {
+        Transaction pending = transactionRepository.save(new Transaction(null, Transaction.TransactionType.TRANSFER,
+                request.getAmount(), request.getAccountNumber(), request.getToAccountNumber(),
+                Transaction.TransactionStatus.PENDING, null, description));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Saved in the caller's transaction (an idempotent request); the worker must not look before it commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(pending.getId());
+                }
+            });
+        } else {
+            enqueue(pending.getId());
+        }
+        return pending;
+    }
+
+    /**
+     * Queue transfers that have been pending for longer than retry-after
+     */
+    @Scheduled(fixedDelayString = "${banking.transfers.async.recovery-interval:PT30S}")
+    public void resumePending() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retryAfter);
+        List<Long> ids = transactionRepository.findIdsInStatusBefore(Transaction.TransactionType.TRANSFER,
+                Transaction.TransactionStatus.PENDING, cutoff, PageRequest.of(0, queue.remainingCapacity() + 1));
+        ids.forEach(this::enqueue);
+    }
+
+    private void enqueue(Long id) {
+        if (!queue.offer(id)) {
+            // Still PENDING in the table; the recovery scan queues it again
+            overflows.increment();
+        }
+    }
+
+    private void drainLoop() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Long first = queue.poll(pollIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Treat as shutdown: settle what is left and exit
+                running = false;
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            settle(batch);
+            batch.clear();
+        }
+    }
+
+    private void settle(List<Long> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<Transaction> done = writeTransaction.execute(status -> apply(new LinkedHashSet<>(batch)));
+            for (Transaction transfer : done) {
+                (transfer.getStatus() == Transaction.TransactionStatus.SUCCESS ? succeeded : failed).increment();
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.warn("Failed to settle transfer {}, retrying in {}", batch.get(0), retryAfter, e);
+                return;
+            }
+            // One bad transfer must not hold the others back
+            for (Long id : batch) {
+                settle(List.of(id));
+            }
+        }
+    }
+
+    /**
+     * Settle the transfers among the ids that are still PENDING and return them
+     */
+    private List<Transaction> apply(Set<Long> ids) {
+        List<Transaction> transfers = transactionRepository.findForUpdate(ids, Transaction.TransactionStatus.PENDING);
+        if (transfers.isEmpty()) {
+            return transfers;
+        }
+        batchSizes.record(transfers.size());
+
+        // Lock every account involved in account number order; missing accounts stay null
+        Map<String, Account> locked = new TreeMap<>();
+        for (Transaction transfer : transfers) {
+            locked.put(transfer.getFromAccount(), null);
+            locked.put(transfer.getToAccount(), null);
+        }
+        Map<String, BigDecimal> available = new TreeMap<>();
+        for (Account account : accountRepository.findAllLocked(locked.keySet())) {
+            locked.put(account.getAccountNumber(), account);
+            available.put(account.getAccountNumber(),
+                    account.getBalance().add(stripedBalances.pendingBalance(account.getAccountNumber())));
+        }
+
+        Map<String, BigDecimal> net = new TreeMap<>();
+        List<Transaction> settled = new ArrayList<>();
+        List<Transaction> rejected = new ArrayList<>();
+        for (Transaction transfer : transfers) {
+            BigDecimal from = available.get(transfer.getFromAccount());
+            BigDecimal to = available.get(transfer.getToAccount());
+            if (from == null || to == null || from.compareTo(transfer.getAmount()) < 0) {
+                rejected.add(transfer);
+                continue;
+            }
+            available.put(transfer.getFromAccount(), from.subtract(transfer.getAmount()));
+            available.put(transfer.getToAccount(), available.get(transfer.getToAccount()).add(transfer.getAmount()));
+            net.merge(transfer.getFromAccount(), transfer.getAmount().negate(), BigDecimal::add);
+            net.merge(transfer.getToAccount(), transfer.getAmount(), BigDecimal::add);
+            settled.add(transfer);
+        }
+
+        // The rows are locked, so the loaded balances are current; the updates flush as one JDBC batch
+        net.forEach((accountNumber, delta) -> {
+            if (delta.signum() != 0) {
+                Account account = locked.get(accountNumber);
+                if (account.getBalance().add(delta).signum() < 0) {
+                    // Settled against slot balance: fold the slots into the locked row first
+                    account.setBalance(account.getBalance().add(stripedBalances.takeSlots(accountNumber)));
+                }
+                account.setBalance(account.getBalance().add(delta));
+                accountCache.evict(accountNumber);
+            }
+        });
+        if (!settled.isEmpty()) {
+            // Managed rows: the status changes flush with the balances
+            settled.forEach(transfer -> transfer.setStatus(Transaction.TransactionStatus.SUCCESS));
+            activityService.recordAll(settled);
+            settled.forEach(transfer -> eventPublisher.publishEvent(new TransactionPostedEvent(transfer)));
+        }
+        for (Transaction transfer : rejected) {
+            transfer.setStatus(Transaction.TransactionStatus.FAILED);
+            journalRejected(transfer, available);
+        }
+        return transfers;
+    }
+
+    private void journalRejected(Transaction transfer, Map<String, BigDecimal> available) {
+        TransactionRequest request = new TransactionRequest(transfer.getFromAccount(), transfer.getAmount(),
+                transfer.getToAccount(), transfer.getDescription());
+        if (available.get(transfer.getFromAccount()) == null || available.get(transfer.getToAccount()) == null) {
+            auditJournal.rejected(Transaction.TransactionType.TRANSFER, request, "Account not found");
+            return;
+        }
+        meterRegistry.counter("banking.transactions.insufficient_balance", "type", "TRANSFER").increment();
+        auditJournal.rejected(Transaction.TransactionType.TRANSFER, request, "Insufficient balance");
+    }
+}
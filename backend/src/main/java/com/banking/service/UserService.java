@@ -1,10 +1,14 @@
 package com.banking.service;
 
+import com.banking.bloom.KeyFilters;
 import com.banking.dto.LoginRequest;
 import com.banking.dto.RegisterRequest;
 import com.banking.exception.ResourceNotFoundException;
+import com.banking.exception.ServiceUnavailableException;
 import com.banking.model.User;
 import com.banking.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -17,20 +21,31 @@ import java.util.Map;
 @Service
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private KeyFilters keyFilters;
+
     /**
      * Register a new user
      */
     public User registerUser(RegisterRequest request) {
         // Check if username already exists
-        if (userRepository.existsByUsername(request.getUsername())) {
+        // The key filters answer most "not taken" cases without a query
+        if (keyFilters.mightHaveUsername(request.getUsername())
+                && userRepository.existsByUsername(request.getUsername())) {
             throw new IllegalArgumentException("Username already exists");
         }
 
         // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (keyFilters.mightHaveEmail(request.getEmail())
+                && userRepository.existsByEmail(request.getEmail())) {
             throw new IllegalArgumentException("Email already exists");
         }
 
@@ -39,8 +54,8 @@ public class UserService {
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
 
-        // Hash the password (simple hashing - in production use BCrypt)
-        user.setPassword(hashPassword(request.getPassword()));
+        // Store only the BCrypt hash
+        user.setPassword(passwordHasher.hash(request.getPassword()));
 
         return userRepository.save(user);
     }
@@ -49,15 +64,23 @@ public class UserService {
      * Authenticate user login
      */
     public Map<String, Object> loginUser(LoginRequest request) {
-        // Find user by username
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("Invalid username or password"));
+        // Find user by username; an unknown one costs the same hashing and fails the same way
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        if (user == null) {
+            passwordHasher.matchNothing(request.getPassword());
+            throw new IllegalArgumentException("Invalid username or password");
+        }
 
         // Verify password
-        if (!verifyPassword(request.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPassword())) {
             throw new IllegalArgumentException("Invalid username or password");
         }
 
+        // Upgrade plaintext or weaker hashes while the raw password is at hand
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            rehash(user, request.getPassword());
+        }
+
         // Return user data (excluding password)
         Map<String, Object> response = new HashMap<>();
         response.put("id", user.getId());
@@ -76,21 +99,13 @@ public class UserService {
     }
 
     /**
-     * Simple password hashing (use BCrypt in production)
+     * Store a fresh hash; skipped when hashing is saturated, the next login retries it
      */
-    private String hashPassword(String password) {
-        // For simplicity, using direct storage
-        // In production, use: BCryptPasswordEncoder encoder = new
-        // BCryptPasswordEncoder();
-        // return encoder.encode(password);
-        return password; // SIMPLIFIED FOR DEMO - USE BCRYPT IN PRODUCTION
-    }
-
-    /**
-     * Verify password
-     */
-    private boolean verifyPassword(String rawPassword, String hashedPassword) {
-        // In production: return encoder.matches(rawPassword, hashedPassword);
-        return rawPassword.equals(hashedPassword); // SIMPLIFIED FOR DEMO
+    private void rehash(User user, String rawPassword) {
+        try {
+            userRepository.updatePassword(user.getId(), passwordHasher.hash(rawPassword));
+        } catch (ServiceUnavailableException e) {
+            log.debug("Deferred password rehash for user {}: {}", user.getId(), e.getMessage());
+        }
     }
 }
@@ -0,0 +1,225 @@
+package com.banking.sharding;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.events.TransactionPostedEvent;
+import com.banking.exception.ResourceNotFoundException;
+import com.banking.model.Transaction;
+import com.banking.model.TransferSaga;
+import com.banking.repository.TransactionRepository;
+import com.banking.repository.TransferSagaRepository;
+import com.banking.service.AccountActivityService;
+import com.banking.service.AccountService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Transfers between accounts on different shards, as a saga of local transactions.
+ *
+ * 1. Source shard: debit, record the transfer as PENDING and a DEBITED saga row.
+ * 2. Destination shard: credit, record the transfer there and a CREDITED saga row under
+ *    the same id; an existing row means this step already ran, so it is never applied twice.
+ * 3. Source shard: move the saga to COMPLETED and the transfer to SUCCESS.
+ *
+ * A missing destination account rolls the debit back (COMPENSATED, transfer FAILED). Any
+ * other failure leaves the transfer PENDING; a periodic scan of every shard resumes sagas
+ * that have been DEBITED for longer than banking.sharding.saga.retry-after.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.sharding.enabled", havingValue = "true")
+public class CrossShardTransfers {
+
+    private static final Logger log = LoggerFactory.getLogger(CrossShardTransfers.class);
+    private static final int RECOVERY_BATCH = 100;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountActivityService activityService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransferSagaRepository sagaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Duration retryAfter;
+    private final Counter completed;
+    private final Counter compensated;
+    private final Counter deferred;
+
+    public CrossShardTransfers(MeterRegistry meterRegistry,
+                               @Value("${banking.sharding.saga.retry-after:30s}") Duration retryAfter) {
+        this.retryAfter = retryAfter;
+        this.completed = meterRegistry.counter("banking.sharding.sagas", "outcome", "completed");
+        this.compensated = meterRegistry.counter("banking.sharding.sagas", "outcome", "compensated");
+        this.deferred = meterRegistry.counter("banking.sharding.sagas", "outcome", "deferred");
+    }
+
+    /**
+     * Debit the source and carry the transfer through to the destination. Returns null when
+     * funds are insufficient; otherwise the transfer, still PENDING if it could not finish yet.
+     */
+    public Transaction transfer(TransactionRequest request, String description) {
+        LocalDateTime now = LocalDateTime.now();
+        TransferSaga saga = new TransferSaga(UUID.randomUUID().toString(), request.getAccountNumber(),
+                request.getToAccountNumber(), request.getAmount(), null, TransferSaga.State.DEBITED, now, now);
+
+        Transaction transfer = shardRouter.onShardOf(saga.getFromAccount(), () -> transactionTemplate.execute(status -> {
+            // Debit guarded by the balance check; no row updated means insufficient funds
+            if (!accountService.debit(saga.getFromAccount(), saga.getAmount())) {
+                return null;
+            }
+            Transaction pending = transactionRepository.save(new Transaction(null, Transaction.TransactionType.TRANSFER,
+                    saga.getAmount(), saga.getFromAccount(), saga.getToAccount(),
+                    Transaction.TransactionStatus.PENDING, null, description));
+            saga.setTransactionId(pending.getId());
+            sagaRepository.save(saga);
+            return pending;
+        }));
+        if (transfer == null) {
+            return null;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The debit joined the caller's transaction; the destination may only see it once that commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    complete(saga, transfer);
+                }
+            });
+        } else {
+            complete(saga, transfer);
+        }
+        return transfer;
+    }
+
+    /**
+     * Resume transfers that stopped after the debit, on every shard
+     */
+    @Scheduled(fixedDelayString = "${banking.sharding.saga.recovery-interval:PT10S}")
+    public void resumePending() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retryAfter);
+        shardRouter.forEachShard(() -> {
+            for (TransferSaga saga : sagaRepository.findByStateAndUpdatedAtBeforeOrderByUpdatedAt(
+                    TransferSaga.State.DEBITED, cutoff, PageRequest.of(0, RECOVERY_BATCH))) {
+                transactionRepository.findById(saga.getTransactionId())
+                        .ifPresent(transfer -> complete(saga, transfer));
+            }
+        });
+    }
+
+    private void complete(TransferSaga saga, Transaction transfer) {
+        try {
+            credit(saga, transfer);
+        } catch (ResourceNotFoundException e) {
+            compensate(saga, transfer);
+            return;
+        } catch (RuntimeException e) {
+            defer(saga, e);
+            return;
+        }
+
+        try {
+            boolean finished = shardRouter.writeShard(shardRouter.shardOf(saga.getFromAccount()), () -> {
+                if (sagaRepository.transition(saga.getId(), TransferSaga.State.DEBITED,
+                        TransferSaga.State.COMPLETED, LocalDateTime.now()) == 0) {
+                    return false;
+                }
+                transactionRepository.updateStatus(transfer.getId(), Transaction.TransactionStatus.SUCCESS);
+                activityService.record(leg(transfer, saga.getFromAccount(), null));
+                transfer.setStatus(Transaction.TransactionStatus.SUCCESS);
+                eventPublisher.publishEvent(new TransactionPostedEvent(transfer));
+                return true;
+            });
+            if (finished) {
+                completed.increment();
+            }
+        } catch (RuntimeException e) {
+            transfer.setStatus(Transaction.TransactionStatus.PENDING);
+            defer(saga, e);
+        }
+    }
+
+    /**
+     * Apply the destination side once; the CREDITED row commits together with the credit
+     */
+    private void credit(TransferSaga saga, Transaction transfer) {
+        shardRouter.writeShard(shardRouter.shardOf(saga.getToAccount()), () -> {
+            if (sagaRepository.existsById(saga.getId())) {
+                return null;
+            }
+            accountService.credit(saga.getToAccount(), saga.getAmount());
+            Transaction credited = transactionRepository.save(new Transaction(null, Transaction.TransactionType.TRANSFER,
+                    saga.getAmount(), saga.getFromAccount(), saga.getToAccount(),
+                    Transaction.TransactionStatus.SUCCESS, null, transfer.getDescription()));
+            activityService.record(leg(credited, null, saga.getToAccount()));
+            LocalDateTime now = LocalDateTime.now();
+            sagaRepository.save(new TransferSaga(saga.getId(), saga.getFromAccount(), saga.getToAccount(),
+                    saga.getAmount(), credited.getId(), TransferSaga.State.CREDITED, now, now));
+            return null;
+        });
+    }
+
+    private void compensate(TransferSaga saga, Transaction transfer) {
+        boolean reversed = shardRouter.writeShard(shardRouter.shardOf(saga.getFromAccount()), () -> {
+            if (sagaRepository.transition(saga.getId(), TransferSaga.State.DEBITED,
+                    TransferSaga.State.COMPENSATED, LocalDateTime.now()) == 0) {
+                return false;
+            }
+            accountService.credit(saga.getFromAccount(), saga.getAmount());
+            transactionRepository.updateStatus(transfer.getId(), Transaction.TransactionStatus.FAILED);
+            return true;
+        });
+        if (reversed) {
+            transfer.setStatus(Transaction.TransactionStatus.FAILED);
+            compensated.increment();
+            log.warn("Transfer {} reversed: destination account {} not found", transfer.getId(), saga.getToAccount());
+        }
+    }
+
+    private void defer(TransferSaga saga, RuntimeException cause) {
+        deferred.increment();
+        log.warn("Transfer saga {} left pending, retrying in {}", saga.getId(), retryAfter, cause);
+        try {
+            shardRouter.writeShard(shardRouter.shardOf(saga.getFromAccount()),
+                    () -> sagaRepository.touch(saga.getId(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            // The scan picks it up regardless, only sooner
+        }
+    }
+
+    /**
+     * One side of a transfer, for the activity totals of the shard that account lives on
+     */
+    private static Transaction leg(Transaction transfer, String fromAccount, String toAccount) {
+        return new Transaction(transfer.getId(), transfer.getType(), transfer.getAmount(), fromAccount, toAccount,
+                Transaction.TransactionStatus.SUCCESS, transfer.getTransactionDate(), transfer.getDescription());
+    }
+}
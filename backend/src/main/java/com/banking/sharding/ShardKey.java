@@ -0,0 +1,18 @@
+package com.banking.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the account number parameter that decides which shard a service method runs on.
+ * The method runs on that account's shard, including any transaction it opens
+ * (see {@link ShardKeyAspect}).
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
@@ -0,0 +1,58 @@
+package com.banking.sharding;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs methods with a {@link ShardKey} parameter on that account's shard. Ordered just inside
+ * the metrics aspect and outside the @Transactional proxy, so the transaction starts on the
+ * right shard.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "banking.sharding.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ShardKeyAspect {
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private final Map<Method, Integer> keyPositions = new ConcurrentHashMap<>();
+
+    @Around("execution(* com.banking..*(.., @com.banking.sharding.ShardKey (*), ..))")
+    public Object routeToShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String accountNumber = (String) joinPoint.getArgs()[keyPositions.computeIfAbsent(method, ShardKeyAspect::keyPosition)];
+
+        String previous = shardRouter.enter(shardRouter.shardOf(accountNumber));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            shardRouter.leave(previous);
+        }
+    }
+
+    private static int keyPosition(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return i;
+                }
+            }
+        }
+        throw new IllegalStateException("No @ShardKey parameter on " + method);
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring mapping account numbers to shards.
+ *
+ * Every shard owns {@code virtualNodes} points on a 64-bit ring and a key belongs to the
+ * first point at or after its hash. Adding a shard only moves the keys that land on the
+ * new shard's points; every other key keeps its shard.
+ */
+public class ShardRing {
+
+    private final TreeMap<Long, String> points = new TreeMap<>();
+
+    public ShardRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A shard ring needs at least one shard and one point per shard");
+        }
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // A collision keeps the first owner, so the ring does not depend on map order
+                points.putIfAbsent(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    public String shardFor(String key) {
+        Map.Entry<Long, String> owner = points.ceilingEntry(hash(key));
+        return owner != null ? owner.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * 64-bit FNV-1a, finished with the MurmurHash3 mixer so sequential account numbers
+     * spread over the whole ring
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,177 @@
+package com.banking.sharding;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard a piece of work runs on (banking.sharding.enabled=true).
+ *
+ * Account numbers map to shards on a {@link ShardRing}; work wrapped in {@link #onShardOf}
+ * gets its connections from that account's shard. A transaction stays on the shard it
+ * started on, so switching shards inside one is refused; use {@link #readShard} or
+ * {@link #writeShard} to run a separate transaction elsewhere. With sharding disabled every
+ * method simply runs the work in place.
+ */
+@Component
+public class ShardRouter {
+
+    private final boolean enabled;
+    private final List<String> shards;
+    private final ShardRing ring;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public ShardRouter(PlatformTransactionManager transactionManager, Environment environment) {
+        ShardingProperties properties = ShardingProperties.bind(environment);
+        this.enabled = properties.isEnabled();
+        this.shards = List.copyOf(properties.shardNames());
+        this.ring = enabled ? new ShardRing(shards, properties.getVirtualNodes()) : null;
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Shard holding the account, or null with sharding disabled
+     */
+    public String shardOf(String accountNumber) {
+        if (!enabled || accountNumber == null) {
+            return enabled ? ShardingProperties.HOME_SHARD : null;
+        }
+        return ring.shardFor(accountNumber);
+    }
+
+    public boolean sameShard(String accountNumber, String otherAccountNumber) {
+        return Objects.equals(shardOf(accountNumber), shardOf(otherAccountNumber));
+    }
+
+    /**
+     * Run work on the account's shard, joining a transaction already running there
+     */
+    public <T> T onShardOf(String accountNumber, Supplier<T> work) {
+        return onShard(shardOf(accountNumber), work);
+    }
+
+    /**
+     * Run work on the given shard, joining a transaction already running there
+     */
+    public <T> T onShard(String shard, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        String previous = enter(shard);
+        try {
+            return work.get();
+        } finally {
+            leave(previous);
+        }
+    }
+
+    /**
+     * Run work on every shard in turn
+     */
+    public void forEachShard(Runnable work) {
+        if (!enabled) {
+            work.run();
+            return;
+        }
+        for (String shard : shards) {
+            onShard(shard, () -> {
+                work.run();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Run work in its own read-only transaction on the given shard; with sharding disabled
+     * it joins the caller's transaction
+     */
+    public <T> T readShard(String shard, Supplier<T> work) {
+        return inNewTransaction(shard, readTransaction, work);
+    }
+
+    /**
+     * Run work in its own read-write transaction on the given shard, independent of any
+     * transaction the caller has open
+     */
+    public <T> T writeShard(String shard, Supplier<T> work) {
+        return inNewTransaction(shard, writeTransaction, work);
+    }
+
+    /**
+     * Collect the results of a query run on every shard
+     */
+    public <T> List<T> readEveryShard(Supplier<? extends Collection<T>> query) {
+        if (!enabled) {
+            return new ArrayList<>(query.get());
+        }
+        List<T> results = new ArrayList<>();
+        for (String shard : shards) {
+            results.addAll(readShard(shard, query));
+        }
+        return results;
+    }
+
+    /**
+     * Account numbers grouped by shard; a single group keyed by null with sharding disabled
+     */
+    public Map<String, List<String>> groupByShard(Collection<String> accountNumbers) {
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String accountNumber : accountNumbers) {
+            groups.computeIfAbsent(shardOf(accountNumber), key -> new ArrayList<>()).add(accountNumber);
+        }
+        return groups;
+    }
+
+    /**
+     * Switch the thread to a shard and return the shard it was on
+     */
+    String enter(String shard) {
+        String previous = ShardedDataSource.currentShard();
+        if (!shard.equals(Objects.requireNonNullElse(previous, ShardingProperties.HOME_SHARD))
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to " + shard + " inside a transaction on "
+                    + Objects.requireNonNullElse(previous, ShardingProperties.HOME_SHARD));
+        }
+        ShardedDataSource.setCurrentShard(shard);
+        return previous;
+    }
+
+    void leave(String previous) {
+        ShardedDataSource.setCurrentShard(previous);
+    }
+
+    private <T> T inNewTransaction(String shard, TransactionTemplate template, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        // The new transaction suspends the caller's, so the switch is safe even inside one
+        String previous = ShardedDataSource.currentShard();
+        ShardedDataSource.setCurrentShard(shard);
+        try {
+            return template.execute(status -> work.get());
+        } finally {
+            ShardedDataSource.setCurrentShard(previous);
+        }
+    }
+}
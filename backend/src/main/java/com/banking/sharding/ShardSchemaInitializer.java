@@ -0,0 +1,90 @@
+package com.banking.sharding;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Table;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Brings the added shards up to the entity model once Hibernate has handled the home shard.
+ *
+ * The same spring.jpa.hibernate.ddl-auto action runs against every shard. Id sequences are
+ * then moved to a separate range per shard (shard n starts at n * 2^40): pooled id blocks are
+ * fetched from whichever shard a thread happens to be on, so without disjoint ranges two
+ * shards could hand out the same id.
+ */
+public class ShardSchemaInitializer implements Integrator, SessionFactoryObserver {
+
+    static final long SHARD_ID_RANGE = 1L << 40;
+
+    private static final Logger log = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    private final transient ShardedDataSource dataSource;
+    private final List<String> shards;
+    private transient Metadata metadata;
+
+    public ShardSchemaInitializer(ShardedDataSource dataSource, List<String> shards) {
+        this.dataSource = dataSource;
+        this.shards = shards;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void sessionFactoryCreated(SessionFactory factory) {
+        SessionFactoryImplementor sessionFactory = (SessionFactoryImplementor) factory;
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        for (int i = 1; i < shards.size(); i++) {
+            String shard = shards.get(i);
+            ShardedDataSource.setCurrentShard(shard);
+            try {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                        sessionFactory.getProperties(), action -> { });
+            } finally {
+                ShardedDataSource.setCurrentShard(null);
+            }
+            offsetIds(new JdbcTemplate(dataSource.getShard(shard)), dialect, i * SHARD_ID_RANGE);
+            log.info("Prepared {} for sharded accounts", shard);
+        }
+    }
+
+    private void offsetIds(JdbcTemplate jdbc, Dialect dialect, long start) {
+        for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+            for (Sequence sequence : namespace.getSequences()) {
+                String name = sequence.getName().getSequenceName().render(dialect);
+                Long next = jdbc.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(name), Long.class);
+                if (next != null && next < start) {
+                    // Pooled ids run up to the fetched value, so the first block starts one increment lower
+                    jdbc.execute("ALTER SEQUENCE " + name + " RESTART WITH " + (start + sequence.getIncrementSize()));
+                }
+            }
+            // Databases without sequences keep the next value in a one-column table
+            for (Table table : namespace.getTables()) {
+                if (table.getColumnSpan() == 1 && "next_val".equals(table.getColumns().iterator().next().getName())) {
+                    String name = table.getQualifiedTableName().render();
+                    jdbc.update("UPDATE " + name + " SET next_val = ? WHERE next_val < ?", start, start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.banking.sharding;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out connections to the shard the current thread is working on.
+ *
+ * {@link ShardRouter} sets the shard before a transaction starts. Connections are fetched
+ * lazily, at the first statement, so the transaction manager never needs to know about
+ * shards. Without a shard set (users, startup, anything that is not about one account)
+ * connections come from the home shard, the auto-configured DataSource.
+ */
+public class ShardedDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedDataSource.class);
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final DataSource home;
+    private final Map<String, DataSource> shards;
+    private final Map<String, LongAdder> connections = new LinkedHashMap<>();
+
+    /**
+     * @param shards every shard by name in ring order, the home shard among them
+     */
+    public ShardedDataSource(DataSource home, Map<String, DataSource> shards) {
+        this.home = home;
+        this.shards = new LinkedHashMap<>(shards);
+        shards.keySet().forEach(name -> connections.put(name, new LongAdder()));
+
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+    }
+
+    /**
+     * The pool of one shard itself, bypassing routing
+     */
+    public DataSource getShard(String name) {
+        DataSource shard = shards.get(name);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown shard: " + name);
+        }
+        return shard;
+    }
+
+    /**
+     * Connections handed out per shard
+     */
+    public void bindMetrics(MeterRegistry registry) {
+        connections.forEach((name, count) ->
+                FunctionCounter.builder("banking.datasource.connections", count, LongAdder::sum)
+                        .tag("target", name)
+                        .register(registry));
+    }
+
+    /**
+     * Close every pool behind this data source
+     */
+    @Override
+    public void close() {
+        for (DataSource shard : shards.values()) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close data source {}", shard, e);
+                }
+            }
+        }
+    }
+
+    static String currentShard() {
+        return CURRENT.get();
+    }
+
+    static void setCurrentShard(String shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        String name = CURRENT.get();
+        if (name == null) {
+            name = ShardingProperties.HOME_SHARD;
+        }
+        Connection connection = source.get(getShard(name));
+        connections.get(name).increment();
+        return connection;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    /**
+     * Picks the physical data source; unwrapping reaches the home pool so its metrics and
+     * health indicator keep working
+     */
+    private final class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return route(DataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return route(dataSource -> dataSource.getConnection(username, password));
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : home.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || home.isWrapperFor(iface);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.banking.sharding;
+
+import com.banking.config.ConnectionAdmissionDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharding of accounts and their postings (banking.sharding.enabled=true).
+ *
+ * Wraps the auto-configured DataSource, which becomes the home shard, in a
+ * {@link ShardedDataSource} over one pool per configured node, and has Hibernate prepare
+ * the schema of every added shard. Read replicas and the ledger engine assume a single
+ * database and cannot be combined with sharding.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public static BeanPostProcessor shardRouting(Environment environment) {
+        Binder binder = Binder.get(environment);
+        for (String exclusive : List.of("banking.datasource.replicas.enabled", "banking.ledger.enabled")) {
+            if (binder.bind(exclusive, Boolean.class).orElse(false)) {
+                throw new IllegalStateException(exclusive + " cannot be combined with banking.sharding.enabled");
+            }
+        }
+        // Virtual threads queue in front of every pool, shards included (see VirtualThreadConfig)
+        Duration admissionTimeout = binder.bind("spring.threads.virtual.enabled", Boolean.class).orElse(false)
+                ? binder.bind("banking.datasource.admission.timeout", Duration.class).orElse(Duration.ofSeconds(30))
+                : null;
+        return new ShardingPostProcessor(ShardingProperties.bind(environment), admissionTimeout);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaInitializer(DataSource dataSource, Environment environment) {
+        ShardSchemaInitializer initializer = new ShardSchemaInitializer((ShardedDataSource) dataSource,
+                ShardingProperties.bind(environment).shardNames());
+        return properties -> {
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(initializer));
+            properties.put(AvailableSettings.SESSION_FACTORY_OBSERVER, initializer);
+        };
+    }
+
+    @Bean
+    public MeterBinder shardMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ShardedDataSource sharded) {
+                sharded.bindMetrics(registry);
+            }
+        };
+    }
+
+    /**
+     * Runs after connection admission has wrapped the home pool
+     */
+    private static final class ShardingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ShardingProperties properties;
+        private final Duration admissionTimeout;
+
+        private ShardingPostProcessor(ShardingProperties properties, Duration admissionTimeout) {
+            this.properties = properties;
+            this.admissionTimeout = admissionTimeout;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource home)
+                    || bean instanceof ShardedDataSource) {
+                return bean;
+            }
+            List<ShardingProperties.Node> nodes = properties.getNodes();
+            if (nodes.isEmpty()) {
+                throw new IllegalStateException(
+                        "banking.sharding.enabled is set but no banking.sharding.nodes are configured");
+            }
+
+            Map<String, DataSource> shards = new LinkedHashMap<>();
+            shards.put(ShardingProperties.HOME_SHARD, home);
+            for (int i = 0; i < nodes.size(); i++) {
+                String name = "shard-" + (i + 1);
+                shards.put(name, shardPool(name, nodes.get(i)));
+            }
+            return new ShardedDataSource(home, shards);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        private DataSource shardPool(String name, ShardingProperties.Node node) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(node.getUrl())
+                    .username(node.getUsername())
+                    .password(node.getPassword())
+                    .build();
+            pool.setPoolName(name);
+            pool.setMaximumPoolSize(properties.getPoolSize());
+            return admissionTimeout == null
+                    ? pool
+                    : new ConnectionAdmissionDataSource(pool, properties.getPoolSize(), admissionTimeout);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.banking.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding (banking.sharding.*).
+ * Bound before the DataSource is created, so not a bean itself.
+ */
+@Data
+public class ShardingProperties {
+
+    /**
+     * Name of the shard behind spring.datasource, which also keeps the unsharded tables (users)
+     */
+    public static final String HOME_SHARD = "shard-0";
+
+    private boolean enabled = false;
+
+    /**
+     * Databases added next to spring.datasource; they become shard-1, shard-2, ... in this order
+     */
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Connections per added shard pool
+     */
+    private int poolSize = 10;
+
+    /**
+     * Points per shard on the hash ring; more points spread accounts more evenly
+     */
+    private int virtualNodes = 256;
+
+    private Saga saga = new Saga();
+
+    public static ShardingProperties bind(Environment environment) {
+        return Binder.get(environment)
+                .bind("banking.sharding", ShardingProperties.class)
+                .orElseGet(ShardingProperties::new);
+    }
+
+    /**
+     * All shard names, the home shard first
+     */
+    public List<String> shardNames() {
+        List<String> names = new ArrayList<>();
+        names.add(HOME_SHARD);
+        for (int i = 1; i <= nodes.size(); i++) {
+            names.add("shard-" + i);
+        }
+        return names;
+    }
+
+    @Data
+    public static class Node {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+
+    @Data
+    public static class Saga {
+
+        /**
+         * How often each shard is scanned for cross-shard transfers that stopped half way
+         */
+        private Duration recoveryInterval = Duration.ofSeconds(10);
+
+        /**
+         * How long a transfer may stay pending before recovery picks it up
+         */
+        private Duration retryAfter = Duration.ofSeconds(30);
+    }
+}
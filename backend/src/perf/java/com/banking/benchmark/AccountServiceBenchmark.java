@@ -0,0 +1,64 @@
+package com.banking.benchmark;
+
+import com.banking.model.Account;
+import com.banking.service.AccountNumberGenerator;
+import com.banking.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account lookups and account number generation, single- and multi-threaded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private AccountService accountService;
+    private AccountNumberGenerator accountNumberGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp(BankingState state) {
+        accountService = state.bean(AccountService.class);
+        accountNumberGenerator = state.bean(AccountNumberGenerator.class);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Account getAccountByNumber(BankingState state) {
+        return accountService.getAccountByNumber(state.randomAccount());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Account getAccountByNumberMultiThreaded(BankingState state) {
+        return getAccountByNumber(state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generateAccountNumber() {
+        return accountNumberGenerator.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateAccountNumberMultiThreaded() {
+        return accountNumberGenerator.next();
+    }
+}
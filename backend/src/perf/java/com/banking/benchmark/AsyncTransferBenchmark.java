@@ -0,0 +1,148 @@
+package com.banking.benchmark;
+
+import com.banking.BankingApplication;
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Account;
+import com.banking.model.User;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.UserRepository;
+import com.banking.service.AccountNumberGenerator;
+import com.banking.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sustained transfers/s between random accounts: posted synchronously, or submitted to the
+ * asynchronous pipeline. An async invocation only ends once the pipeline has settled
+ * everything submitted so far, so both scores count settled transfers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncTransferBenchmark {
+
+    private static final int BURST = 50;
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    // Few accounts: transfers queue on the same rows; many: they mostly touch different ones
+    @Param({"10", "1000"})
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private MeterRegistry meterRegistry;
+    private String[] accountNumbers;
+    private final AtomicLong submitted = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+        // DevTools would otherwise restart the application in a new class loader and re-run main
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.com.banking=WARN",
+                        "--banking.transfers.async.enabled=true");
+        seedAccounts();
+        transactionService = context.getBean(TransactionService.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(BURST)
+    public void sync() {
+        for (int i = 0; i < BURST; i++) {
+            transactionService.transfer(randomTransfer());
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(BURST)
+    public void async() {
+        for (int i = 0; i < BURST; i++) {
+            transactionService.submitTransfer(randomTransfer());
+        }
+        long target = submitted.addAndGet(BURST);
+        while (settled() < target) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    private double settled() {
+        return meterRegistry.counter("banking.transfers.async", "outcome", "success").count()
+                + meterRegistry.counter("banking.transfers.async", "outcome", "failed").count();
+    }
+
+    private TransactionRequest randomTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TransactionRequest(accountNumbers[random.nextInt(accounts)], AMOUNT,
+                accountNumbers[random.nextInt(accounts)], null);
+    }
+
+    private void seedAccounts() {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setPassword("password");
+        user = context.getBean(UserRepository.class).save(user);
+
+        AccountNumberGenerator generator = context.getBean(AccountNumberGenerator.class);
+        List<Account> batch = new ArrayList<>(accounts);
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account();
+            account.setAccountNumber(generator.next());
+            account.setHolderName("Holder " + i);
+            // Large enough that transfers never run dry during a run
+            account.setBalance(new BigDecimal("1000000000.00"));
+            account.setPhone("5550000000");
+            account.setAddress(i + " Benchmark Rd");
+            account.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            account.setUser(user);
+            batch.add(account);
+            accountNumbers[i] = account.getAccountNumber();
+        }
+        context.getBean(AccountRepository.class).saveAll(batch);
+    }
+}
@@ -0,0 +1,132 @@
+package com.banking.benchmark;
+
+import com.banking.BankingApplication;
+import com.banking.model.Account;
+import com.banking.model.User;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.UserRepository;
+import com.banking.service.AccountNumberGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shared benchmark state: the application booted on a private in-memory H2
+ * database, seeded with {@code accounts} accounts and {@code history}
+ * transactions on the first account. Sizes are set with -p accounts=N -p history=N.
+ */
+@State(Scope.Benchmark)
+public class BankingState {
+
+    private static final int BATCH = 1_000;
+
+    @Param("1000")
+    public int accounts;
+
+    @Param("10000")
+    public int history;
+
+    public ConfigurableApplicationContext context;
+    public String[] accountNumbers;
+    public String historyAccount;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // DevTools would otherwise restart the application in a new class loader and re-run main
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.com.banking=WARN");
+        seedAccounts();
+        seedHistory();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public String randomAccount() {
+        return accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)];
+    }
+
+    private void seedAccounts() {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setPassword("password");
+        user = bean(UserRepository.class).save(user);
+
+        AccountRepository accountRepository = bean(AccountRepository.class);
+        AccountNumberGenerator generator = bean(AccountNumberGenerator.class);
+        accountNumbers = new String[accounts];
+        for (int offset = 0; offset < accounts; offset += BATCH) {
+            List<Account> batch = new ArrayList<>(BATCH);
+            for (int i = offset; i < Math.min(offset + BATCH, accounts); i++) {
+                Account account = new Account();
+                account.setAccountNumber(generator.next());
+                account.setHolderName("Holder " + i);
+                // Large enough that withdrawals never run dry during a run
+                account.setBalance(new BigDecimal("1000000000.00"));
+                account.setPhone("5550000000");
+                account.setAddress(i + " Benchmark Rd");
+                account.setDateOfBirth(LocalDate.of(1990, 1, 1));
+                account.setUser(user);
+                batch.add(account);
+                accountNumbers[i] = account.getAccountNumber();
+            }
+            accountRepository.saveAll(batch);
+        }
+        historyAccount = accountNumbers[0];
+    }
+
+    private void seedHistory() {
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        LocalDateTime start = LocalDateTime.now().minusDays(history / 1000 + 1);
+        for (int offset = 0; offset < history; offset += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = offset; i < Math.min(offset + BATCH, history); i++) {
+                boolean incoming = i % 2 == 0;
+                batch.add(new Object[] {
+                        // Well above anything the id sequences hand out during a run
+                        1_000_000_000_000L + i,
+                        incoming ? "DEPOSIT" : "WITHDRAW",
+                        new BigDecimal("10.00"),
+                        incoming ? null : historyAccount,
+                        incoming ? historyAccount : null,
+                        "SUCCESS",
+                        Timestamp.valueOf(start.plusSeconds(i * 60L)),
+                        "Seeded history"
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO transactions "
+                    + "(id, type, amount, from_account, to_account, status, transaction_date, description) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.banking.benchmark;
+
+import com.banking.BankingApplication;
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.banking.model.User;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.UserRepository;
+import com.banking.service.AccountActivityService;
+import com.banking.service.AccountService;
+import com.banking.service.StripedBalances;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 64 threads depositing into one account, on its row alone (slots=0) or spread over
+ * balance slots. Tear-down checks that the balance matches the deposits counted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotAccountDepositBenchmark {
+
+    private static final String HOT_ACCOUNT = "900000000001";
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+
+    @Param({"0", "16"})
+    public int slots;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // DevTools would otherwise restart the application in a new class loader and re-run main
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.com.banking=WARN",
+                        "--banking.striping.accounts=" + (slots > 0 ? HOT_ACCOUNT : ""),
+                        "--banking.striping.slots=" + Math.max(slots, 1));
+        seedAccount();
+        // Sets up the slots instead of waiting for the first scheduled consolidation
+        context.getBean(StripedBalances.class).consolidate();
+        transactionService = context.getBean(TransactionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.getBean(StripedBalances.class).consolidate();
+        long deposits = context.getBean(AccountActivityService.class).getActivity(HOT_ACCOUNT).getDepositCount();
+        BigDecimal balance = context.getBean(AccountService.class).getBalance(HOT_ACCOUNT);
+        BigDecimal expected = OPENING_BALANCE.add(AMOUNT.multiply(BigDecimal.valueOf(deposits)));
+        context.close();
+        if (balance.compareTo(expected) != 0) {
+            throw new IllegalStateException("Balance " + balance + " after " + deposits + " deposits, expected " + expected);
+        }
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Transaction deposit() {
+        return transactionService.deposit(new TransactionRequest(HOT_ACCOUNT, AMOUNT, null, null));
+    }
+
+    private void seedAccount() {
+        User user = new User();
+        user.setUsername("merchant");
+        user.setEmail("merchant@example.com");
+        user.setPassword("password");
+        user = context.getBean(UserRepository.class).save(user);
+
+        Account account = new Account();
+        account.setAccountNumber(HOT_ACCOUNT);
+        account.setHolderName("Merchant");
+        account.setBalance(OPENING_BALANCE);
+        account.setPhone("5550000000");
+        account.setAddress("1 Market St");
+        account.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        account.setUser(user);
+        context.getBean(AccountRepository.class).save(account);
+    }
+}
@@ -0,0 +1,118 @@
+package com.banking.benchmark;
+
+import com.banking.model.User;
+import com.banking.repository.UserRepository;
+import com.banking.security.SessionTokenInterceptor;
+import com.banking.security.SessionTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a request with a session token, against the user lookup that
+ * database-backed sessions would need on every call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionTokenBenchmark {
+
+    private SessionTokenService tokenService;
+    private SessionTokenInterceptor interceptor;
+    private String token;
+    private String revokedToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokenService = new SessionTokenService("", Duration.ofHours(12), 100_000);
+        interceptor = new SessionTokenInterceptor(tokenService, new ObjectMapper(),
+                new SimpleMeterRegistry().counter("banking.auth.rejected"), false);
+        token = tokenService.issue(42);
+        revokedToken = tokenService.issue(42);
+        tokenService.revoke(revokedToken);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object verifyToken() {
+        return tokenService.verify(token);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object verifyTokenMultiThreaded() {
+        return tokenService.verify(token);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object verifyRevokedToken() {
+        return tokenService.verify(revokedToken);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean interceptAuthenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts/10000000000/balance");
+        request.addHeader("Authorization", "Bearer " + token);
+        return interceptor.preHandle(request, new MockHttpServletResponse(), null);
+    }
+
+    /**
+     * Request setup alone, to subtract from {@link #interceptAuthenticatedRequest}
+     */
+    @Benchmark
+    @Threads(1)
+    public Object requestBaseline() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts/10000000000/balance");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String issueToken() {
+        return tokenService.issue(42);
+    }
+
+    /**
+     * What a stateful session would cost instead: one primary key lookup per request
+     */
+    @Benchmark
+    @Threads(1)
+    public User findUserById(UserLookupState state) {
+        return state.userRepository.findById(state.userId).orElseThrow();
+    }
+
+    @State(Scope.Benchmark)
+    public static class UserLookupState {
+
+        UserRepository userRepository;
+        Long userId;
+
+        @Setup(Level.Trial)
+        public void setUp(BankingState banking) {
+            userRepository = banking.bean(UserRepository.class);
+            userId = userRepository.findByUsername("benchmark").orElseThrow().getId();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionPage;
+import com.banking.model.Transaction;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full history vs first keyset page for an account with {@code history} rows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setUp(BankingState state) {
+        transactionService = state.bean(TransactionService.class);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<Transaction> getTransactionHistory(BankingState state) {
+        return transactionService.getTransactionHistory(state.historyAccount);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Transaction> getTransactionHistoryMultiThreaded(BankingState state) {
+        return getTransactionHistory(state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionPage getTransactionPage(BankingState state) {
+        return transactionService.getTransactionPage(state.historyAccount, null, null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionPage getTransactionPageMultiThreaded(BankingState state) {
+        return getTransactionPage(state);
+    }
+}
@@ -0,0 +1,78 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Transaction;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write paths of TransactionService against H2, single- and multi-threaded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setUp(BankingState state) {
+        transactionService = state.bean(TransactionService.class);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Transaction deposit(BankingState state) {
+        return transactionService.deposit(new TransactionRequest(state.randomAccount(), AMOUNT, null, null));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Transaction depositMultiThreaded(BankingState state) {
+        return deposit(state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Transaction withdraw(BankingState state) {
+        return transactionService.withdraw(new TransactionRequest(state.randomAccount(), AMOUNT, null, null));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Transaction withdrawMultiThreaded(BankingState state) {
+        return withdraw(state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Transaction transfer(BankingState state) {
+        return transactionService.transfer(
+                new TransactionRequest(state.randomAccount(), AMOUNT, state.randomAccount(), null));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Transaction transferMultiThreaded(BankingState state) {
+        return transfer(state);
+    }
+}
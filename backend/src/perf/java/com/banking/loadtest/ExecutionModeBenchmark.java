@@ -0,0 +1,58 @@
+package com.banking.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the same open-loop load against the application twice, once with Tomcat on
+ * its platform-thread pool and once on virtual threads, and writes both reports
+ * side by side.
+ *
+ * Options (key=value): rate (req/s), users (concurrent clients, default 5000),
+ * duration and warmup (seconds), customers, report (file).
+ */
+public class ExecutionModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadGenerator.parse(args);
+        int rate = LoadGenerator.intOption(options, "rate", 2_000);
+        int users = LoadGenerator.intOption(options, "users", 5_000);
+        Duration warmup = Duration.ofSeconds(LoadGenerator.intOption(options, "warmup", 10));
+        Duration duration = Duration.ofSeconds(LoadGenerator.intOption(options, "duration", 30));
+        int customers = LoadGenerator.intOption(options, "customers", 200);
+
+        Map<String, Map<LoadGenerator.Operation, LoadGenerator.Result>> results = new LinkedHashMap<>();
+        for (String mode : new String[] {"platform", "virtual"}) {
+            // Fresh application and database per mode so neither run inherits the other's data
+            ConfigurableApplicationContext application =
+                    LoadGenerator.startInProcess("mode-" + mode, "virtual".equals(mode));
+            try {
+                LoadGenerator generator = new LoadGenerator(LoadGenerator.localUrl(application));
+                generator.seed(customers);
+                System.out.printf("[%s] warming up for %ds ...%n", mode, warmup.toSeconds());
+                generator.run(rate, users, warmup);
+                System.out.printf("[%s] running %d req/s with %d clients for %ds ...%n",
+                        mode, rate, users, duration.toSeconds());
+                results.put(mode, generator.run(rate, users, duration));
+            } finally {
+                application.close();
+            }
+        }
+
+        Path report = Path.of(options.getOrDefault("report", "target/execution-mode-report.txt"));
+        try (PrintStream out = LoadGenerator.openReport(report)) {
+            for (PrintStream stream : new PrintStream[] {System.out, out}) {
+                results.forEach((mode, result) -> {
+                    stream.printf("=== %s threads ===%n", mode);
+                    LoadGenerator.report(result, duration, rate, users, stream);
+                });
+            }
+        }
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+}
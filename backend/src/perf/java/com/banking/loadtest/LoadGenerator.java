@@ -0,0 +1,399 @@
+package com.banking.loadtest;
+
+import com.banking.BankingApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load generator for the REST API.
+ *
+ * Replays a weighted mix of auth, account and transaction calls at a fixed target
+ * rate from many concurrent virtual users and records per-endpoint latency in
+ * HdrHistograms. Latency is measured from each request's scheduled start time, so
+ * queueing behind a slow server is included (no coordinated omission).
+ *
+ * Without {@code target=} the application is booted in-process on H2 at a random port.
+ * Each virtual user is a virtual thread, so thousands of concurrent clients are cheap.
+ *
+ * Options (key=value): target, rate (req/s), users (virtual users), duration and
+ * warmup (seconds), customers (seeded users, two accounts each), report (file),
+ * threads (platform|virtual server execution mode; in-process only).
+ */
+public class LoadGenerator {
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+    private static final String PASSWORD = "password123";
+
+    /**
+     * Request mix; weights are relative
+     */
+    enum Operation {
+        LOGIN("POST /api/auth/login", 10),
+        DASHBOARD("GET /api/dashboard/{userId}", 20),
+        ACCOUNT("GET /api/accounts/{accountNumber}", 10),
+        BALANCE("GET /api/accounts/{accountNumber}/balance", 20),
+        HISTORY("GET /api/transactions/account/{accountNumber}/page", 10),
+        DEPOSIT("POST /api/transactions/deposit", 10),
+        WITHDRAW("POST /api/transactions/withdraw", 10),
+        TRANSFER("POST /api/transactions/transfer", 10);
+
+        private final String label;
+        private final int weight;
+
+        Operation(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Customer> customers;
+    private final Operation[] schedule;
+
+    public LoadGenerator(String baseUrl) {
+        this(baseUrl, new ArrayList<>(), Operation.values());
+    }
+
+    /**
+     * A generator limited to some operations that shares the customers seeded by another
+     */
+    public LoadGenerator(LoadGenerator seeded, Operation... operations) {
+        this(seeded.baseUrl, seeded.customers, operations);
+    }
+
+    private LoadGenerator(String baseUrl, List<Customer> customers, Operation[] operations) {
+        this.baseUrl = baseUrl;
+        this.customers = customers;
+
+        // Expand weights into a lookup table so picking an operation is one random index
+        List<Operation> table = new ArrayList<>();
+        for (Operation operation : operations) {
+            for (int i = 0; i < operation.weight; i++) {
+                table.add(operation);
+            }
+        }
+        this.schedule = table.toArray(new Operation[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+
+        ConfigurableApplicationContext application = null;
+        String target = options.get("target");
+        if (target == null) {
+            application = startInProcess("loadtest", "virtual".equals(options.getOrDefault("threads", "platform")));
+            target = localUrl(application);
+        }
+
+        try {
+            LoadGenerator generator = new LoadGenerator(target);
+            generator.seed(intOption(options, "customers", 50));
+
+            int rate = intOption(options, "rate", 200);
+            int users = intOption(options, "users", 100);
+            System.out.printf("Warming up for %ss ...%n", options.getOrDefault("warmup", "10"));
+            generator.run(rate, users, Duration.ofSeconds(intOption(options, "warmup", 10)));
+
+            Duration duration = Duration.ofSeconds(intOption(options, "duration", 60));
+            System.out.printf("Running %d req/s with %d virtual users for %ds against %s ...%n",
+                    rate, users, duration.toSeconds(), target);
+            Map<Operation, Result> results = generator.run(rate, users, duration);
+
+            Path report = Path.of(options.getOrDefault("report", "target/load-report.txt"));
+            report(results, duration, rate, users, System.out);
+            try (PrintStream out = openReport(report)) {
+                report(results, duration, rate, users, out);
+            }
+            System.out.println("Report written to " + report.toAbsolutePath());
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    /**
+     * Boot the application on an in-memory H2 database at a random port.
+     * Extra arguments ({@code --key=value}) override application properties.
+     */
+    static ConfigurableApplicationContext startInProcess(String database, boolean virtualThreads, String... properties) {
+        // DevTools would otherwise restart the application in a new class loader and re-run main
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.com.banking=WARN"));
+        args.addAll(List.of(properties));
+        return new SpringApplicationBuilder(BankingApplication.class).run(args.toArray(new String[0]));
+    }
+
+    static String localUrl(ConfigurableApplicationContext application) {
+        return "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+    }
+
+    static PrintStream openReport(Path report) throws IOException {
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        return new PrintStream(Files.newOutputStream(report));
+    }
+
+    /**
+     * Register customers through the API, each with two funded accounts
+     */
+    void seed(int count) throws IOException, InterruptedException {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < count; i++) {
+            String username = "load-" + run + "-" + i;
+            JsonNode user = call("POST", "/api/auth/register", Map.of(
+                    "username", username,
+                    "email", username + "@example.com",
+                    "password", PASSWORD), null);
+            String token = call("POST", "/api/auth/login",
+                    Map.of("username", username, "password", PASSWORD), null).get("token").asText();
+            Customer customer = new Customer(user.get("id").asLong(), username, token);
+
+            for (int a = 0; a < 2; a++) {
+                Map<String, Object> account = new HashMap<>();
+                account.put("holderName", "Load Customer " + i);
+                account.put("initialBalance", 1_000_000);
+                account.put("phone", "5550000000");
+                account.put("address", i + " Load St");
+                account.put("dateOfBirth", "1990-01-01");
+                account.put("userId", customer.id);
+                customer.accounts.add(call("POST", "/api/accounts/create", account, token)
+                        .get("accountNumber").asText());
+            }
+            customers.add(customer);
+        }
+    }
+
+    /**
+     * Fire requests at a fixed rate for the given duration and collect per-operation results
+     */
+    Map<Operation, Result> run(int rate, int users, Duration duration) throws InterruptedException {
+        Map<Operation, Result> results = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            results.put(operation, new Result());
+        }
+        run(rate, users, duration, results);
+        return results;
+    }
+
+    /**
+     * Same as {@link #run(int, int, Duration)}, adding to existing results
+     */
+    void run(int rate, int users, Duration duration, Map<Operation, Result> results) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        long end = start + duration.toNanos();
+        AtomicLong slots = new AtomicLong();
+
+        List<Thread> virtualUsers = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Thread thread = Thread.ofVirtual().name("load-user-" + i).unstarted(() -> {
+                while (true) {
+                    // Each request owns a slot in the global schedule
+                    long intended = start + slots.getAndIncrement() * interval;
+                    if (intended >= end) {
+                        return;
+                    }
+                    long wait;
+                    while ((wait = intended - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+
+                    Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                    boolean ok = execute(operation);
+                    results.get(operation).record(System.nanoTime() - intended, ok);
+                }
+            });
+            thread.start();
+            virtualUsers.add(thread);
+        }
+        for (Thread thread : virtualUsers) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Print a per-operation latency and throughput table
+     */
+    static void report(Map<Operation, Result> results, Duration duration, int rate, int users, PrintStream out) {
+        out.printf("Load report: target %d req/s, %d virtual users, %ds%n%n", rate, users, duration.toSeconds());
+        out.printf("%-52s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms", "Max ms");
+
+        Histogram total = new Histogram(HIGHEST_LATENCY, 3);
+        long totalErrors = 0;
+        for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+            Result result = entry.getValue();
+            total.add(result.latency);
+            totalErrors += result.errors.get();
+            printRow(out, entry.getKey().label, result.latency, result.errors.get(), duration);
+        }
+        printRow(out, "ALL", total, totalErrors, duration);
+        out.println();
+    }
+
+    private static void printRow(PrintStream out, String label, Histogram latency, long errors, Duration duration) {
+        out.printf("%-52s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                label,
+                latency.getTotalCount(),
+                errors,
+                latency.getTotalCount() / (double) duration.toSeconds(),
+                millis(latency.getValueAtPercentile(50)),
+                millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()));
+    }
+
+    private boolean execute(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Customer customer = customers.get(random.nextInt(customers.size()));
+        String account = customer.accounts.get(random.nextInt(customer.accounts.size()));
+        try {
+            HttpRequest request = switch (operation) {
+                case LOGIN -> post("/api/auth/login",
+                        Map.of("username", customer.username, "password", PASSWORD), null);
+                case DASHBOARD -> get("/api/dashboard/" + customer.id, customer.token);
+                case ACCOUNT -> get("/api/accounts/" + account, customer.token);
+                case BALANCE -> get("/api/accounts/" + account + "/balance", customer.token);
+                case HISTORY -> get("/api/transactions/account/" + account + "/page?size=20", customer.token);
+                case DEPOSIT -> post("/api/transactions/deposit",
+                        Map.of("accountNumber", account, "amount", 1), customer.token);
+                case WITHDRAW -> post("/api/transactions/withdraw",
+                        Map.of("accountNumber", account, "amount", 1), customer.token);
+                case TRANSFER -> {
+                    Customer payee = customers.get(random.nextInt(customers.size()));
+                    yield post("/api/transactions/transfer", Map.of(
+                            "accountNumber", account,
+                            "toAccountNumber", payee.accounts.get(0),
+                            "amount", 1), customer.token);
+                }
+            };
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private JsonNode call(String method, String path, Object body, String token) throws IOException, InterruptedException {
+        HttpRequest request = "GET".equals(method) ? get(path, token) : post(path, body, token);
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(method + " " + path + " failed: " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("data");
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Object body, String token) throws IOException {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    static int intOption(Map<String, String> options, String key, int defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * A seeded customer, their session token and account numbers
+     */
+    private static final class Customer {
+        private final long id;
+        private final String username;
+        private final String token;
+        private final List<String> accounts = new ArrayList<>(2);
+
+        private Customer(long id, String username, String token) {
+            this.id = id;
+            this.username = username;
+            this.token = token;
+        }
+    }
+
+    /**
+     * Latency histogram and error count of one operation
+     */
+    static final class Result {
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos, boolean ok) {
+            latency.recordValue(Math.min(nanos, HIGHEST_LATENCY));
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
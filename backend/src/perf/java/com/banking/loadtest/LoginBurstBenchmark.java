@@ -0,0 +1,116 @@
+package com.banking.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how login bursts affect transfer latency.
+ *
+ * Each run drives a steady open-loop transfer load and, in parallel, repeated bursts of
+ * logins, on a fresh application: once without bursts as the baseline, once with BCrypt
+ * hashing inline on the request threads ({@code banking.password.hashing-threads=0}) and
+ * once with hashing on its bounded pool. Login errors in the pooled run are mostly fast
+ * 503s from admission control.
+ *
+ * Options (key=value): rate (transfers/s), users, burst-rate (logins/s during a burst),
+ * burst-users, burst-length and burst-interval (seconds), duration and warmup (seconds),
+ * customers, report (file).
+ */
+public class LoginBurstBenchmark {
+
+    private static final List<Mode> MODES = List.of(
+            new Mode("no bursts", false),
+            new Mode("inline hashing", true, "--banking.password.hashing-threads=0"),
+            new Mode("hashing pool", true));
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadGenerator.parse(args);
+        int rate = LoadGenerator.intOption(options, "rate", 50);
+        int users = LoadGenerator.intOption(options, "users", 50);
+        int burstRate = LoadGenerator.intOption(options, "burst-rate", 50);
+        int burstUsers = LoadGenerator.intOption(options, "burst-users", 100);
+        Duration burstLength = Duration.ofSeconds(LoadGenerator.intOption(options, "burst-length", 3));
+        Duration burstInterval = Duration.ofSeconds(LoadGenerator.intOption(options, "burst-interval", 5));
+        Duration warmup = Duration.ofSeconds(LoadGenerator.intOption(options, "warmup", 10));
+        Duration duration = Duration.ofSeconds(LoadGenerator.intOption(options, "duration", 30));
+        int customers = LoadGenerator.intOption(options, "customers", 50);
+
+        Map<String, Map<LoadGenerator.Operation, LoadGenerator.Result>> results = new LinkedHashMap<>();
+        for (Mode mode : MODES) {
+            String name = mode.name();
+            // Fresh application and database per run so hashes and balances start out the same
+            ConfigurableApplicationContext application =
+                    LoadGenerator.startInProcess("burst-" + results.size(), false, mode.properties());
+            try {
+                LoadGenerator seeded = new LoadGenerator(LoadGenerator.localUrl(application));
+                seeded.seed(customers);
+                LoadGenerator transfers = new LoadGenerator(seeded, LoadGenerator.Operation.TRANSFER);
+                LoadGenerator logins = new LoadGenerator(seeded, LoadGenerator.Operation.LOGIN);
+
+                System.out.printf("[%s] warming up for %ds ...%n", name, warmup.toSeconds());
+                transfers.run(rate, users, warmup);
+
+                Map<LoadGenerator.Operation, LoadGenerator.Result> result = new EnumMap<>(LoadGenerator.Operation.class);
+                result.put(LoadGenerator.Operation.TRANSFER, new LoadGenerator.Result());
+                result.put(LoadGenerator.Operation.LOGIN, new LoadGenerator.Result());
+
+                System.out.printf("[%s] running %d transfers/s for %ds ...%n", name, rate, duration.toSeconds());
+                Thread steady = Thread.ofPlatform().name("transfers").start(() -> {
+                    try {
+                        transfers.run(rate, users, duration, result);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                if (mode.bursts()) {
+                    burst(logins, burstRate, burstUsers, burstLength, burstInterval, duration, result);
+                }
+                steady.join();
+                results.put(name, result);
+            } finally {
+                application.close();
+            }
+        }
+
+        Path report = Path.of(options.getOrDefault("report", "target/login-burst-report.txt"));
+        try (PrintStream out = LoadGenerator.openReport(report)) {
+            for (PrintStream stream : new PrintStream[] {System.out, out}) {
+                stream.printf("Login bursts: %d logins/s for %ds after every %ds quiet%n%n",
+                        burstRate, burstLength.toSeconds(), burstInterval.toSeconds());
+                results.forEach((mode, result) -> {
+                    stream.printf("=== %s ===%n", mode);
+                    LoadGenerator.report(result, duration, rate, users, stream);
+                });
+            }
+        }
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    /**
+     * Alternate quiet gaps and login bursts until the steady load ends
+     */
+    private static void burst(LoadGenerator logins, int rate, int users, Duration length, Duration interval,
+                              Duration duration, Map<LoadGenerator.Operation, LoadGenerator.Result> result)
+            throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        while (true) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(interval.toNanos(), Math.max(0, end - System.nanoTime())));
+            long remaining = end - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            logins.run(rate, users, Duration.ofNanos(Math.min(length.toNanos(), remaining)), result);
+        }
+    }
+
+    private record Mode(String name, boolean bursts, String... properties) {
+    }
+}
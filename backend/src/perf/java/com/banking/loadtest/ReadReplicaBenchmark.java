@@ -0,0 +1,103 @@
+package com.banking.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the same read-heavy open-loop load (account, balance, history and dashboard reads
+ * next to transfers) against the application with and without a read replica, and writes
+ * both reports side by side.
+ *
+ * The replica is a second pool on the same in-memory H2 database, i.e. a replica with no
+ * lag, so the comparison shows what moving reads off the primary pool buys, not what a
+ * separate database server would add. Both modes use the same primary pool size and are run
+ * twice in ABBA order after a throwaway application has taken the JIT warm-up; measured once
+ * each in a cold JVM, whichever mode ran first came out slower.
+ *
+ * Options (key=value): rate (req/s), users, pool-size (connections per pool, default 4),
+ * jvm-warmup, duration and warmup (seconds), customers, report (file).
+ */
+public class ReadReplicaBenchmark {
+
+    private static final LoadGenerator.Operation[] READ_HEAVY = {
+            LoadGenerator.Operation.DASHBOARD,
+            LoadGenerator.Operation.ACCOUNT,
+            LoadGenerator.Operation.BALANCE,
+            LoadGenerator.Operation.HISTORY,
+            LoadGenerator.Operation.TRANSFER
+    };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadGenerator.parse(args);
+        int rate = LoadGenerator.intOption(options, "rate", 200);
+        int users = LoadGenerator.intOption(options, "users", 100);
+        int poolSize = LoadGenerator.intOption(options, "pool-size", 4);
+        Duration warmup = Duration.ofSeconds(LoadGenerator.intOption(options, "warmup", 10));
+        Duration duration = Duration.ofSeconds(LoadGenerator.intOption(options, "duration", 30));
+        int customers = LoadGenerator.intOption(options, "customers", 50);
+
+        Duration jvmWarmup = Duration.ofSeconds(LoadGenerator.intOption(options, "jvm-warmup", 30));
+        ConfigurableApplicationContext throwaway = LoadGenerator.startInProcess("jvm-warmup", false);
+        try {
+            LoadGenerator seeded = new LoadGenerator(LoadGenerator.localUrl(throwaway));
+            seeded.seed(customers);
+            System.out.printf("Warming up the JVM for %ds ...%n", jvmWarmup.toSeconds());
+            new LoadGenerator(seeded, READ_HEAVY).run(rate / 2, users, jvmWarmup);
+        } finally {
+            throwaway.close();
+        }
+
+        // ABBA order so drift over the session (JIT, GC, heap growth) falls on both modes alike
+        Map<String, Map<LoadGenerator.Operation, LoadGenerator.Result>> results = new LinkedHashMap<>();
+        int round = 0;
+        for (boolean replica : new boolean[] {false, true, true, false}) {
+            String mode = replica ? "primary + replica" : "primary only";
+            String database = "replica-round-" + round++;
+            // Fresh application and database per round so no run inherits another's data
+            ConfigurableApplicationContext application = LoadGenerator.startInProcess(database, false,
+                    "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                    "--banking.datasource.replicas.enabled=" + replica,
+                    "--banking.datasource.replicas.nodes[0].url=jdbc:h2:mem:" + database,
+                    "--banking.datasource.replicas.nodes[0].username=sa",
+                    "--banking.datasource.replicas.pool-size=" + poolSize);
+            try {
+                LoadGenerator seeded = new LoadGenerator(LoadGenerator.localUrl(application));
+                seeded.seed(customers);
+                LoadGenerator generator = new LoadGenerator(seeded, READ_HEAVY);
+                System.out.printf("[%s] warming up for %ds ...%n", mode, warmup.toSeconds());
+                generator.run(rate, users, warmup);
+                System.out.printf("[%s] running %d req/s with %d clients for %ds ...%n",
+                        mode, rate, users, duration.toSeconds());
+                generator.run(rate, users, duration, results.computeIfAbsent(mode, key -> newResults()));
+            } finally {
+                application.close();
+            }
+        }
+
+        Path report = Path.of(options.getOrDefault("report", "target/read-replica-report.txt"));
+        try (PrintStream out = LoadGenerator.openReport(report)) {
+            for (PrintStream stream : new PrintStream[] {System.out, out}) {
+                stream.printf("Connections per pool: %d%n%n", poolSize);
+                results.forEach((mode, result) -> {
+                    stream.printf("=== %s ===%n", mode);
+                    LoadGenerator.report(result, duration.multipliedBy(2), rate, users, stream);
+                });
+            }
+        }
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    private static Map<LoadGenerator.Operation, LoadGenerator.Result> newResults() {
+        Map<LoadGenerator.Operation, LoadGenerator.Result> results = new EnumMap<>(LoadGenerator.Operation.class);
+        for (LoadGenerator.Operation operation : LoadGenerator.Operation.values()) {
+            results.put(operation, new LoadGenerator.Result());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,46 @@
+package com.banking.bloom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bloom filter sizing and accuracy on account-number-like keys
+ */
+class BloomFilterTests {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void neverForgetsAddedKeys() {
+        BloomFilter filter = new BloomFilter(KEYS, 0.01);
+        for (long i = 0; i < KEYS; i++) {
+            filter.add(accountNumber(i));
+        }
+        for (long i = 0; i < KEYS; i++) {
+            assertTrue(filter.mightContain(accountNumber(i)));
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(KEYS, 0.01);
+        for (long i = 0; i < KEYS; i++) {
+            filter.add(accountNumber(i));
+        }
+
+        // Sequential neighbours of real numbers, like mistyped ones
+        int falsePositives = 0;
+        for (long i = KEYS; i < 2L * KEYS; i++) {
+            if (filter.mightContain(accountNumber(i))) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / KEYS;
+        assertTrue(rate < 0.02, "False-positive rate " + rate);
+    }
+
+    private static String accountNumber(long value) {
+        return Long.toString(100_000_000_000L + value);
+    }
+}
@@ -0,0 +1,133 @@
+package com.banking.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing between separate in-memory H2 databases, each of which knows its own name
+ */
+class ReadReplicaDataSourceTests {
+
+    private final FailingDataSource replica1 = new FailingDataSource(database("replica-1"));
+    private final DataSource replica2 = database("replica-2");
+    private ReadReplicaDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        // Health checks only run when a test asks for them
+        dataSource = new ReadReplicaDataSource(database("primary"), replicas, Duration.ofHours(1), Duration.ofSeconds(1));
+
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dataSource.close();
+    }
+
+    @Test
+    void readOnlyTransactionsTakeTurnsOnReplicas() {
+        assertEquals(List.of("replica-1", "replica-2", "replica-1", "replica-2"),
+                List.of(readOnlyNode(), readOnlyNode(), readOnlyNode(), readOnlyNode()));
+    }
+
+    @Test
+    void writesAndNonTransactionalWorkStayOnPrimary() {
+        assertEquals("primary", readWrite.execute(status -> node()));
+        assertEquals("primary", node());
+
+        // A read-only method joining a read-write transaction sees that transaction's writes
+        assertEquals("primary", readWrite.execute(status -> readOnly.execute(inner -> node())));
+    }
+
+    @Test
+    void failedReplicaIsSkippedUntilItPassesHealthCheck() {
+        replica1.down = true;
+        assertEquals(List.of("replica-2", "replica-2", "replica-2"),
+                List.of(readOnlyNode(), readOnlyNode(), readOnlyNode()));
+        assertEquals(1, dataSource.getHealthyReplicas());
+
+        replica1.down = false;
+        dataSource.checkReplicas();
+        assertEquals(2, dataSource.getHealthyReplicas());
+        assertEquals(Set.of("replica-1", "replica-2"), Set.of(readOnlyNode(), readOnlyNode()));
+    }
+
+    @Test
+    void readsFallBackToPrimaryWithoutHealthyReplicas() {
+        replica1.down = true;
+        try (Connection connection = replica2.getConnection()) {
+            connection.createStatement().execute("SHUTDOWN");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        dataSource.checkReplicas();
+
+        assertEquals(0, dataSource.getHealthyReplicas());
+        assertEquals("primary", readOnlyNode());
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        String url = "jdbc:h2:mem:routing-" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""))
+                .execute("CREATE TABLE node (name VARCHAR(20)); INSERT INTO node VALUES ('" + name + "')");
+        // IFEXISTS keeps a shut down replica from coming back empty on the next connection
+        return new DriverManagerDataSource(url + ";IFEXISTS=TRUE", "sa", "");
+    }
+
+    /**
+     * Refuses connections while down, like a replica that went away
+     */
+    private static final class FailingDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        private FailingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Replica is down");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.banking.controller;
+
+import com.banking.dto.AccountRequest;
+import com.banking.model.User;
+import com.banking.repository.UserRepository;
+import com.banking.security.SessionTokenService;
+import com.banking.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Account number endpoints only serve accounts of the logged-in user
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:account-ownership;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class AccountOwnershipTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private SessionTokenService tokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String aliceToken;
+    private String aliceAccount;
+    private String bobAccount;
+
+    @BeforeEach
+    void setUp() {
+        User alice = user("alice");
+        User bob = user("bob");
+        aliceToken = tokenService.issue(alice.getId());
+        aliceAccount = open(alice);
+        bobAccount = open(bob);
+    }
+
+    @Test
+    void cannotWithdrawFromAnotherUsersAccount() throws Exception {
+        mockMvc.perform(post("/api/transactions/withdraw")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + aliceToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountNumber\":\"" + bobAccount + "\",\"amount\":10}"))
+                .andExpect(status().isForbidden());
+
+        assertEquals(0, new BigDecimal("100").compareTo(accountService.getBalance(bobAccount)));
+    }
+
+    @Test
+    void readsOfAnotherUsersAccountAreRejected() throws Exception {
+        for (String path : new String[] {"/api/accounts/" + bobAccount, "/api/accounts/" + bobAccount + "/balance",
+                "/api/transactions/account/" + bobAccount, "/api/transactions/account/" + bobAccount + "/export"}) {
+            mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + aliceToken))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
+    @Test
+    void ownAccountIsServed() throws Exception {
+        // Twice, so the second check runs against the cached account
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/accounts/" + aliceAccount + "/balance")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + aliceToken))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/transactions/withdraw")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + aliceToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountNumber\":\"" + aliceAccount + "\",\"amount\":10}"))
+                .andExpect(status().isCreated());
+    }
+
+    private User user(String name) {
+        String username = name + "-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+
+    private String open(User user) {
+        return accountService.createAccount(new AccountRequest("Holder", new BigDecimal("100"),
+                "5550000000", "1 Main St", LocalDate.of(1990, 1, 1), user.getId())).getAccountNumber();
+    }
+}
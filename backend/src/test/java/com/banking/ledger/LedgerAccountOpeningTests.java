@@ -0,0 +1,114 @@
+package com.banking.ledger;
+
+import com.banking.dto.AccountRequest;
+import com.banking.dto.TransactionRequest;
+import com.banking.exception.ServiceUnavailableException;
+import com.banking.model.Account;
+import com.banking.model.User;
+import com.banking.repository.UserRepository;
+import com.banking.service.AccountService;
+import com.banking.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Accounts under the ledger engine: a failed ledger opening leaves no account row behind,
+ * and account reads show the ledger's balance.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger-opening;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.ledger.enabled=true",
+        "banking.ledger.writer.queue-capacity=4",
+        "banking.ledger.writer.reserve-timeout=100ms"
+})
+class LedgerAccountOpeningTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void ledgerDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("ledger-opening").toString();
+        registry.add("banking.ledger.directory", () -> directory);
+    }
+
+    @Test
+    void reserveTimeoutLeavesNoAccountRow() {
+        User user = user("ledger-timeout");
+        int before = accountCount();
+
+        // Every queue slot is taken, as if the database writer had fallen behind
+        for (int i = 0; i < 4; i++) {
+            ledgerWriter.reserve();
+        }
+        try {
+            assertThrows(ServiceUnavailableException.class, () -> open(user, "25"));
+            assertEquals(before, accountCount());
+        } finally {
+            for (int i = 0; i < 4; i++) {
+                ledgerWriter.release();
+            }
+        }
+
+        Account account = open(user, "25");
+        assertEquals(before + 1, accountCount());
+        assertAmount("25", accountService.getBalance(account.getAccountNumber()));
+    }
+
+    @Test
+    void accountReadsShowTheLedgerBalance() {
+        User user = user("ledger-reads");
+        String accountNumber = open(user, "10").getAccountNumber();
+        transactionService.deposit(new TransactionRequest(accountNumber, new BigDecimal("5"), null, null));
+
+        assertAmount("15", accountService.getAccountByNumber(accountNumber).getBalance());
+        assertAmount("15", accountService.getAccountsByUserId(user.getId()).get(0).getBalance());
+        assertAmount("15", accountService.getAccountSummariesByUserId(user.getId()).get(0).getBalance());
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+
+    private Account open(User user, String balance) {
+        return accountService.createAccount(new AccountRequest("Ledger Holder", new BigDecimal(balance),
+                "5550000000", "1 Journal St", LocalDate.of(1990, 1, 1), user.getId()));
+    }
+
+    private int accountCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM accounts", Integer.class);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
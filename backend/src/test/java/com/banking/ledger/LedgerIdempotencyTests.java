@@ -0,0 +1,149 @@
+package com.banking.ledger;
+
+import com.banking.dto.AccountRequest;
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Transaction;
+import com.banking.model.User;
+import com.banking.repository.UserRepository;
+import com.banking.service.AccountService;
+import com.banking.service.IdempotencyService;
+import com.banking.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Idempotency-Keys under the ledger engine: a repeat that arrives before the database writer
+ * has copied the posting is answered from the ledger, and keys belong to their user.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger-idempotency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.ledger.enabled=true",
+        // Snapshots (and pruning of keyed postings) only run when a test calls them
+        "banking.ledger.snapshot-interval=PT1H",
+        // Nothing is answered from the replay cache, so repeats go to the ledger or the table
+        "banking.idempotency.cache-size=0"
+})
+class LedgerIdempotencyTests {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void ledgerDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("ledger-idempotency").toString();
+        registry.add("banking.ledger.directory", () -> directory);
+    }
+
+    @Test
+    void repeatBeforeWriterCatchesUpIsNotPostedAgain() throws Exception {
+        User alice = user("alice");
+        User bob = user("bob");
+        String accountNumber = open(alice);
+        TransactionRequest request = new TransactionRequest(accountNumber, new BigDecimal("10"), null, null);
+        String key = UUID.randomUUID().toString();
+
+        Transaction first;
+        Transaction replay;
+        Transaction bobs;
+        // Hold the account row so the writer cannot copy the deposit yet
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement lock = connection.prepareStatement(
+                    "SELECT balance FROM accounts WHERE account_number = ? FOR UPDATE")) {
+                lock.setString(1, accountNumber);
+                lock.executeQuery().close();
+            }
+
+            first = deposit(alice, key, request);
+            assertNotNull(ledgerService.findUnpersisted(alice.getId(), key));
+            assertEquals(0, keyRows(alice, key));
+
+            replay = deposit(alice, key, request);
+            // The same key from another user is another request
+            bobs = deposit(bob, key, request);
+            connection.rollback();
+        }
+
+        assertEquals(first.getId(), replay.getId());
+        assertNotEquals(first.getId(), bobs.getId());
+        assertEquals(0, new BigDecimal("20").compareTo(accountService.getBalance(accountNumber)));
+
+        // Once written, the key row is there and the ledger lets go of the posting
+        awaitKeyRow(alice, key);
+        ledgerService.snapshot();
+        assertNull(ledgerService.findUnpersisted(alice.getId(), key));
+        assertEquals(first.getId(), deposit(alice, key, request).getId());
+        assertEquals(0, new BigDecimal("20").compareTo(accountService.getBalance(accountNumber)));
+    }
+
+    private Transaction deposit(User user, String key, TransactionRequest request) {
+        return idempotencyService.execute(user.getId(), key, "DEPOSIT", request,
+                requestKey -> transactionService.deposit(request, requestKey));
+    }
+
+    private void awaitKeyRow(User user, String key) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (keyRows(user, key) == 0) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Key row was not written");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private int keyRows(User user, String key) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?",
+                Integer.class, user.getId(), key);
+    }
+
+    private User user(String name) {
+        String username = name + "-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+
+    private String open(User user) {
+        return accountService.createAccount(new AccountRequest("Ledger Holder", BigDecimal.ZERO,
+                "5550000000", "1 Journal St", LocalDate.of(1990, 1, 1), user.getId())).getAccountNumber();
+    }
+}
@@ -0,0 +1,217 @@
+package com.banking.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restarts the ledger over the same directory, including after simulated crashes that
+ * leave a torn or corrupt record at the end of the journal.
+ */
+class LedgerRecoveryTests {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final Map<String, Long> OPENING = Map.of("A", 10_000L, "B", 0L);
+
+    @TempDir
+    Path directory;
+
+    private final List<LedgerEntry> sink = new ArrayList<>();
+
+    @Test
+    void replaysJournalAfterRestart() throws IOException {
+        try (Ledger ledger = open(0)) {
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "A", 500, "Deposit");
+            ledger.post(LedgerEntry.Type.TRANSFER, "A", "B", 2_500, "Transfer");
+            assertNull(ledger.post(LedgerEntry.Type.WITHDRAW, "B", null, 9_999, "Withdrawal"));
+        }
+
+        try (Ledger ledger = open(0)) {
+            assertEquals(8_000L, ledger.balance("A"));
+            assertEquals(2_500L, ledger.balance("B"));
+            assertEquals(2, ledger.getLastSequence());
+            assertFalse(ledger.recoveredFromTornTail());
+        }
+    }
+
+    @Test
+    void discardsRecordTornMidWrite() throws IOException {
+        try (Ledger ledger = open(0)) {
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "A", 100, "Deposit");
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "A", 200, "Deposit");
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "A", 400, "Deposit");
+        }
+
+        // Crash while the last record was being written: the file ends inside it
+        Path segment = onlySegment();
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            file.truncate(endOfRecords(segment) - 5);
+        }
+
+        try (Ledger ledger = open(0)) {
+            assertTrue(ledger.recoveredFromTornTail());
+            assertEquals(2, ledger.getLastSequence());
+            assertEquals(10_300L, ledger.balance("A"));
+
+            // Appending continues where the intact records end
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "A", 1_000, "Deposit");
+        }
+
+        try (Ledger ledger = open(0)) {
+            assertFalse(ledger.recoveredFromTornTail());
+            assertEquals(3, ledger.getLastSequence());
+            assertEquals(11_300L, ledger.balance("A"));
+        }
+    }
+
+    @Test
+    void discardsRecordWithBadChecksum() throws IOException {
+        try (Ledger ledger = open(0)) {
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "A", 100, "Deposit");
+            ledger.post(LedgerEntry.Type.WITHDRAW, "A", null, 50, "Withdrawal");
+        }
+
+        // Flip a byte in the description of the last record
+        Path segment = onlySegment();
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = endOfRecords(segment) - 1;
+            ByteBuffer value = ByteBuffer.allocate(1);
+            file.read(value, position);
+            file.write(ByteBuffer.wrap(new byte[] {(byte) (value.get(0) ^ 0x5A)}), position);
+        }
+
+        try (Ledger ledger = open(0)) {
+            assertTrue(ledger.recoveredFromTornTail());
+            assertEquals(1, ledger.getLastSequence());
+            assertEquals(10_100L, ledger.balance("A"));
+        }
+    }
+
+    @Test
+    void restoresSnapshotPlusJournalTail() throws IOException {
+        try (Ledger ledger = open(0)) {
+            ledger.open("C", 700);
+            ledger.post(LedgerEntry.Type.TRANSFER, "A", "C", 1_000, "Transfer");
+            ledger.snapshot();
+            ledger.post(LedgerEntry.Type.WITHDRAW, "C", null, 300, "Withdrawal");
+        }
+
+        // Opening balances are only used when there is no snapshot yet
+        try (Ledger ledger = open(0, Map.of())) {
+            assertEquals(9_000L, ledger.balance("A"));
+            assertEquals(1_400L, ledger.balance("C"));
+            assertEquals(3, ledger.getLastSequence());
+        }
+    }
+
+    @Test
+    void handsUnpersistedRecordsToSink() throws IOException {
+        try (Ledger ledger = open(0)) {
+            for (int i = 0; i < 5; i++) {
+                ledger.post(LedgerEntry.Type.DEPOSIT, null, "B", 10, "Deposit");
+            }
+        }
+        assertEquals(5, sink.size());
+        sink.clear();
+
+        // The database has seen the first three records
+        try (Ledger ledger = open(3)) {
+            assertEquals(List.of(4L, 5L), sink.stream().map(LedgerEntry::sequence).toList());
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "B", 10, "Deposit");
+            assertEquals(6L, sink.get(sink.size() - 1).sequence());
+        }
+    }
+
+    @Test
+    void replaysIdempotencyKeysWithTheirRecords() throws IOException {
+        LedgerEntry.RequestKey requestKey = new LedgerEntry.RequestKey(7, "retry-1", "0123456789abcdef0123456789abcdef");
+        try (Ledger ledger = open(0)) {
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "B", 10, "Deposit", requestKey);
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "B", 20, null);
+        }
+        sink.clear();
+
+        try (Ledger ledger = open(0)) {
+            assertEquals(List.of(requestKey), sink.stream().map(LedgerEntry::requestKey).filter(Objects::nonNull).toList());
+            assertNull(sink.get(1).requestKey());
+            assertEquals(30L, ledger.balance("B"));
+        }
+    }
+
+    @Test
+    void rollsAndReleasesSegments() throws IOException {
+        String description = "x".repeat(200);
+        try (Ledger ledger = open(0)) {
+            for (int i = 0; i < 100; i++) {
+                ledger.post(LedgerEntry.Type.DEPOSIT, null, "B", 1, description);
+            }
+        }
+        assertTrue(segments().size() > 1);
+
+        try (Ledger ledger = open(0)) {
+            assertEquals(100L, ledger.balance("B"));
+            ledger.snapshot();
+            ledger.snapshot();
+            ledger.post(LedgerEntry.Type.DEPOSIT, null, "B", 1, description);
+            ledger.snapshot();
+            ledger.releaseJournal(ledger.getLastSequence());
+        }
+        assertEquals(1, segments().size());
+
+        // Released segments were persisted, so the database is at least that far along
+        try (Ledger ledger = open(101, Map.of())) {
+            assertEquals(101L, ledger.balance("B"));
+            assertEquals(101, ledger.getLastSequence());
+        }
+    }
+
+    private Ledger open(long persistedSequence) throws IOException {
+        return open(persistedSequence, OPENING);
+    }
+
+    private Ledger open(long persistedSequence, Map<String, Long> opening) throws IOException {
+        Ledger ledger = new Ledger(directory, SEGMENT_SIZE, false, sink::add);
+        ledger.recover(persistedSequence, () -> opening);
+        return ledger;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).sorted().toList();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    /**
+     * Offset just past the last non-zero byte of a segment
+     */
+    private static long endOfRecords(Path segment) throws IOException {
+        byte[] bytes = Files.readAllBytes(segment);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] == 0) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,107 @@
+package com.banking.repository;
+
+import com.banking.model.Account;
+import com.banking.model.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares full entity reads with the balance projection: both must return the same
+ * balances; their timings are printed for comparison.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.com.banking=INFO"
+})
+class AccountReadBenchmarkTests {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final int WARMUP_READS = 20_000;
+    private static final int MEASURED_READS = 50_000;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void projectionReadsMatchEntityReads() {
+        List<String> accountNumbers = seedAccounts();
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        for (String number : accountNumbers) {
+            BigDecimal entityBalance = readWrite.execute(status ->
+                    accountRepository.findByAccountNumber(number).orElseThrow().getBalance());
+            BigDecimal projectionBalance = readOnly.execute(status ->
+                    accountRepository.findBalanceByAccountNumber(number).orElseThrow().getBalance());
+            assertEquals(0, entityBalance.compareTo(projectionBalance),
+                    "Balances differ for " + number + ": " + entityBalance + " vs " + projectionBalance);
+        }
+
+        Consumer<String> entityRead = number -> readWrite.executeWithoutResult(status ->
+                accountRepository.findByAccountNumber(number).orElseThrow().getBalance());
+        Consumer<String> projectionRead = number -> readOnly.executeWithoutResult(status ->
+                accountRepository.findBalanceByAccountNumber(number).orElseThrow().getBalance());
+
+        measure(accountNumbers, entityRead, WARMUP_READS);
+        measure(accountNumbers, projectionRead, WARMUP_READS);
+        double entityNanos = measure(accountNumbers, entityRead, MEASURED_READS);
+        double projectionNanos = measure(accountNumbers, projectionRead, MEASURED_READS);
+
+        System.out.printf("Entity read: %.0f ns/op, projection read: %.0f ns/op (%.2fx)%n",
+                entityNanos, projectionNanos, entityNanos / projectionNanos);
+    }
+
+    private double measure(List<String> accountNumbers, Consumer<String> read, int reads) {
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            read.accept(accountNumbers.get(i % accountNumbers.size()));
+        }
+        return (System.nanoTime() - start) / (double) reads;
+    }
+
+    private List<String> seedAccounts() {
+        User user = new User();
+        user.setUsername("read-bench");
+        user.setEmail("read-bench@example.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setAccountNumber(String.format("9%011d", i));
+            account.setHolderName("Reader " + i);
+            // Distinct balances, so a read of the wrong row would not go unnoticed
+            account.setBalance(BigDecimal.valueOf(10_000 + i, 2));
+            account.setPhone("5550000000");
+            account.setAddress(i + " Projection Ave");
+            account.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            account.setUser(user);
+            accounts.add(account);
+        }
+        return accountRepository.saveAll(accounts).stream().map(Account::getAccountNumber).toList();
+    }
+}
@@ -0,0 +1,51 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Reads that raced an eviction must not re-cache what they loaded
+ */
+class AccountCacheTests {
+
+    private final AccountCache cache = new AccountCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    void readStampedBeforeEvictionIsNotCached() {
+        long stamp = cache.stamp();
+        // A writer commits and evicts while the reader is still loading
+        cache.evict("ACC1");
+        cache.put(account("ACC1", "100.00"), stamp);
+        assertNull(cache.get("ACC1"));
+
+        // A read that starts after the eviction is cached as usual
+        cache.put(account("ACC1", "90.00"), cache.stamp());
+        assertNotNull(cache.get("ACC1"));
+    }
+
+    @Test
+    void userListStampedBeforeEvictionIsNotCached() {
+        long stamp = cache.stamp();
+        cache.evictUser(7L);
+        cache.putUserAccounts(7L, List.of(account("ACC2", "5.00")), stamp);
+        assertNull(cache.getUserAccounts(7L));
+
+        cache.putUserAccounts(7L, List.of(account("ACC2", "5.00")), cache.stamp());
+        assertNotNull(cache.getUserAccounts(7L));
+    }
+
+    private static Account account(String accountNumber, String balance) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+}
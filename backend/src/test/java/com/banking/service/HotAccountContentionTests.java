@@ -0,0 +1,116 @@
+package com.banking.service;
+
+import com.banking.dto.AccountRequest;
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Account;
+import com.banking.model.User;
+import com.banking.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Contention benchmark: many threads moving money on the same hot account.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.com.banking=INFO"
+})
+class HotAccountContentionTests {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 500;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void hotAccountKeepsEveryUpdate() throws Exception {
+        String hot = openAccount(new BigDecimal("1000.00"));
+        String other = openAccount(new BigDecimal("1000.00"));
+
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong netCash = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    try {
+                        switch ((thread + i) % 4) {
+                            case 0 -> {
+                                transactionService.deposit(request(hot, null, "2.00"));
+                                netCash.addAndGet(2);
+                            }
+                            case 1 -> {
+                                transactionService.withdraw(request(hot, null, "2.00"));
+                                netCash.addAndGet(-2);
+                            }
+                            case 2 -> transactionService.transfer(request(hot, other, "1.00"));
+                            default -> transactionService.transfer(request(other, hot, "1.00"));
+                        }
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Transfers are neutral across the two accounts; only cash in/out moves the total
+        BigDecimal total = accountService.getBalance(hot).add(accountService.getBalance(other));
+        BigDecimal expected = new BigDecimal("2000.00").add(BigDecimal.valueOf(netCash.get()));
+        assertEquals(0, expected.compareTo(total));
+
+        long ops = (long) THREADS * OPS_PER_THREAD;
+        System.out.printf("Hot account: %d ops, %d rejected, %.0f ops/s%n",
+                ops, rejected.get(), ops / (elapsed / 1_000_000_000.0));
+    }
+
+    private String openAccount(BigDecimal initialBalance) {
+        User user = new User();
+        user.setUsername("bench-" + UUID.randomUUID());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        Account account = accountService.createAccount(new AccountRequest(
+                "Bench Holder", initialBalance, "5550000000", "1 Bench St", LocalDate.of(1990, 1, 1), user.getId()));
+        return account.getAccountNumber();
+    }
+
+    private TransactionRequest request(String from, String to, String amount) {
+        return new TransactionRequest(from, new BigDecimal(amount), to, null);
+    }
+}
@@ -0,0 +1,139 @@
+package com.banking.service;
+
+import com.banking.dto.AccountRequest;
+import com.banking.model.User;
+import com.banking.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports a large seeded history and checks heap usage stays flat while streaming.
+ * Row count can be changed with -Dstatement.rows=N.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        // File-backed H2 so the seeded rows live on disk rather than in the test heap
+        "spring.datasource.url=jdbc:h2:file:./target/statement-export;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.com.banking=INFO"
+})
+class StatementServiceTests {
+
+    private static final int ROWS = Integer.getInteger("statement.rows", 1_000_000);
+    private static final long MAX_HEAP_GROWTH = 48L * 1024 * 1024;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportStreamsLargeHistoryInConstantMemory() throws Exception {
+        String accountNumber = seedHistory();
+
+        System.gc();
+        long baseline = usedHeap();
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(ROWS / 10);
+
+        long exported = statementService.exportStatement(accountNumber, null, null, StatementService.Format.CSV, out);
+
+        assertEquals(ROWS, exported);
+        assertEquals(ROWS + 1, out.lines); // header + rows
+        long growth = out.peakHeap - baseline;
+        assertTrue(growth < MAX_HEAP_GROWTH,
+                "Heap grew by " + growth / (1024 * 1024) + " MB while exporting " + ROWS + " rows");
+    }
+
+    private String seedHistory() {
+        User user = new User();
+        user.setUsername("statement-user");
+        user.setEmail("statement@example.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        String accountNumber = accountService.createAccount(new AccountRequest(
+                "Statement Holder", BigDecimal.ZERO, "5550000000", "1 Ledger St",
+                LocalDate.of(1990, 1, 1), user.getId())).getAccountNumber();
+
+        LocalDateTime start = LocalDate.now().minusYears(1).atStartOfDay();
+        int batchSize = 10_000;
+        for (int offset = 0; offset < ROWS; offset += batchSize) {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            for (int i = offset; i < Math.min(offset + batchSize, ROWS); i++) {
+                boolean deposit = i % 2 == 0;
+                batch.add(new Object[] {
+                        1_000_000_000L + i,
+                        deposit ? "DEPOSIT" : "WITHDRAW",
+                        new BigDecimal("10.00"),
+                        deposit ? null : accountNumber,
+                        deposit ? accountNumber : null,
+                        "SUCCESS",
+                        Timestamp.valueOf(start.plusSeconds(i * 30L)),
+                        "Seeded, row " + i
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO transactions "
+                    + "(id, type, amount, from_account, to_account, status, transaction_date, description) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+        return accountNumber;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Discards output, counts lines and samples live heap every N lines
+     */
+    private static class HeapSamplingOutputStream extends OutputStream {
+
+        private final long sampleEvery;
+        private long lines;
+        private long peakHeap;
+
+        HeapSamplingOutputStream(long sampleEvery) {
+            this.sampleEvery = Math.max(sampleEvery, 1);
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % sampleEvery == 0) {
+                System.gc();
+                peakHeap = Math.max(peakHeap, usedHeap());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
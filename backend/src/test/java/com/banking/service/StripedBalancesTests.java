@@ -0,0 +1,179 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Account;
+import com.banking.model.AccountDailyActivity;
+import com.banking.model.User;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Deposits to striped accounts: spread over slots, counted in balance reads and activity,
+ * withdrawable, and folded back into the account row.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:striping;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.striping.accounts=900000000101,900000000102,900000000103,900000000104",
+        "banking.striping.slots=4",
+        // Consolidation only runs when a test calls it
+        "banking.striping.consolidation-interval=PT1H"
+})
+class StripedBalancesTests {
+
+    private static final BigDecimal ONE = new BigDecimal("1.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountActivityService activityService;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentDepositsAreKeptAndConsolidated() throws Exception {
+        String hot = open("900000000101", "100");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(executor.submit(() -> transactionService.deposit(new TransactionRequest(hot, ONE, null, null))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // The row is untouched until consolidation, reads include the slots
+        assertAmount("100", rowBalance(hot));
+        assertAmount("300", accountService.getBalance(hot));
+        assertAmount("300", accountService.getAccountByNumber(hot).getBalance());
+        assertEquals(200, activityService.getActivity(hot).getDepositCount());
+
+        stripedBalances.consolidate();
+
+        assertAmount("300", rowBalance(hot));
+        assertAmount("0", jdbcTemplate.queryForObject(
+                "SELECT SUM(balance) FROM account_balance_slots WHERE account_number = ?", BigDecimal.class, hot));
+        assertAmount("300", accountService.getBalance(hot));
+        assertEquals(200, activityService.getActivity(hot).getDepositCount());
+    }
+
+    @Test
+    void withdrawalsSpendSlotBalances() {
+        String hot = open("900000000102", "0");
+        transactionService.deposit(new TransactionRequest(hot, new BigDecimal("50"), null, null));
+
+        transactionService.withdraw(new TransactionRequest(hot, new BigDecimal("30"), null, null));
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                () -> transactionService.withdraw(new TransactionRequest(hot, new BigDecimal("30"), null, null)));
+
+        assertEquals("Insufficient balance", rejected.getMessage());
+        assertAmount("20", accountService.getBalance(hot));
+        stripedBalances.consolidate();
+        assertAmount("20", rowBalance(hot));
+    }
+
+    @Test
+    void withdrawalCoveredOnlyBySlotsFoldsThemIntoTheRow() {
+        String hot = open("900000000104", "10");
+        transactionService.deposit(new TransactionRequest(hot, new BigDecimal("40"), null, null));
+        assertAmount("10", rowBalance(hot));
+
+        transactionService.withdraw(new TransactionRequest(hot, new BigDecimal("35"), null, null));
+
+        // The slots moved into the row before the guarded debit, which never went negative
+        assertAmount("15", rowBalance(hot));
+        assertAmount("0", jdbcTemplate.queryForObject(
+                "SELECT SUM(balance) FROM account_balance_slots WHERE account_number = ?", BigDecimal.class, hot));
+        assertAmount("15", accountService.getBalance(hot));
+        assertEquals(1, activityService.getActivity(hot).getDepositCount());
+    }
+
+    @Test
+    void depositsKeepTheirDayAcrossRollover() {
+        String hot = open("900000000103", "0");
+        for (int i = 0; i < 10; i++) {
+            transactionService.deposit(new TransactionRequest(hot, ONE, null, null));
+        }
+        // As if those deposits had been taken yesterday and not consolidated since
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        jdbcTemplate.update("UPDATE account_balance_slots SET activity_date = ? WHERE account_number = ?", yesterday, hot);
+
+        for (int i = 0; i < 20; i++) {
+            transactionService.deposit(new TransactionRequest(hot, ONE, null, null));
+        }
+
+        assertEquals(30, activityService.getActivity(hot).getDepositCount());
+        assertDailyDeposits(hot, yesterday, 10);
+        assertDailyDeposits(hot, today, 20);
+        stripedBalances.consolidate();
+        assertDailyDeposits(hot, yesterday, 10);
+        assertDailyDeposits(hot, today, 20);
+        assertAmount("30", rowBalance(hot));
+    }
+
+    private void assertDailyDeposits(String accountNumber, LocalDate day, long expected) {
+        List<AccountDailyActivity> days = activityService.getDailyActivity(accountNumber, day, day);
+        assertEquals(expected, days.isEmpty() ? 0 : days.get(0).getDepositCount(), day.toString());
+    }
+
+    private String open(String accountNumber, String balance) {
+        User user = new User();
+        user.setUsername("merchant-" + accountNumber);
+        user.setEmail(accountNumber + "@example.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setHolderName("Merchant");
+        account.setBalance(new BigDecimal(balance));
+        account.setPhone("5550000000");
+        account.setAddress("1 Market St");
+        account.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        account.setUser(user);
+        accountRepository.save(account);
+        // Sets up the slots
+        stripedBalances.consolidate();
+        return accountNumber;
+    }
+
+    private BigDecimal rowBalance(String accountNumber) {
+        return jdbcTemplate.queryForObject(
+                "SELECT balance FROM accounts WHERE account_number = ?", BigDecimal.class, accountNumber);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,184 @@
+package com.banking.service;
+
+import com.banking.dto.AccountRequest;
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.banking.model.User;
+import com.banking.repository.TransactionRepository;
+import com.banking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Transfers accepted as PENDING and settled in batches: money is conserved, balances never
+ * go negative, and transfers left pending are picked up again.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transfer-pipeline;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.transfers.async.enabled=true",
+        "banking.transfers.async.batch-size=50",
+        // Recovery only runs when a test calls it, and then takes every pending transfer
+        "banking.transfers.async.recovery-interval=PT1H",
+        "banking.transfers.async.retry-after=0s"
+})
+class TransferPipelineTests {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransferPipeline transferPipeline;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String name = "pipeline-user-" + UUID.randomUUID();
+        user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void concurrentSubmissionsSettleWithoutLosingMoney() throws Exception {
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accounts.add(open(100));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Transaction>> submitted = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            submitted.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String from = accounts.get(random.nextInt(accounts.size()));
+                String to = accounts.get(random.nextInt(accounts.size()));
+                return transactionService.submitTransfer(
+                        new TransactionRequest(from, new BigDecimal(random.nextInt(1, 40)), to, null));
+            }));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Future<Transaction> future : submitted) {
+            Transaction accepted = future.get();
+            assertEquals(Transaction.TransactionStatus.PENDING, accepted.getStatus());
+            ids.add(accepted.getId());
+        }
+        executor.shutdown();
+
+        awaitSettled(ids);
+        BigDecimal total = BigDecimal.ZERO;
+        for (String account : accounts) {
+            BigDecimal balance = accountService.getBalance(account);
+            assertTrue(balance.signum() >= 0, account + " went negative: " + balance);
+            total = total.add(balance);
+        }
+        assertEquals(0, new BigDecimal("500").compareTo(total));
+        // Balances only moved by the transfers that succeeded
+        for (String account : accounts) {
+            BigDecimal net = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(CASE WHEN to_account = ? THEN amount ELSE 0 END) "
+                            + "- SUM(CASE WHEN from_account = ? THEN amount ELSE 0 END), 0) FROM transactions "
+                            + "WHERE status = 'SUCCESS' AND (from_account = ? OR to_account = ?)",
+                    BigDecimal.class, account, account, account, account);
+            assertEquals(0, new BigDecimal("100").add(net).compareTo(accountService.getBalance(account)), account);
+        }
+    }
+
+    @Test
+    void uncoveredTransferFails() throws InterruptedException {
+        String from = open(10);
+        String to = open(0);
+
+        Transaction accepted = transactionService.submitTransfer(new TransactionRequest(from, new BigDecimal("30"), to, null));
+
+        awaitSettled(List.of(accepted.getId()));
+        assertEquals(Transaction.TransactionStatus.FAILED, transactionService.getTransaction(accepted.getId()).getStatus());
+        assertEquals(0, BigDecimal.TEN.compareTo(accountService.getBalance(from)));
+    }
+
+    @Test
+    void idempotentSubmissionSettlesAfterKeyCommits() throws InterruptedException {
+        String from = open(100);
+        String to = open(0);
+        TransactionRequest request = new TransactionRequest(from, new BigDecimal("25"), to, null);
+        String key = UUID.randomUUID().toString();
+
+        Transaction first = idempotencyService.execute(1L, key, "TRANSFER", request,
+                requestKey -> transactionService.submitTransfer(request, requestKey));
+        Transaction replay = idempotencyService.execute(1L, key, "TRANSFER", request,
+                requestKey -> transactionService.submitTransfer(request, requestKey));
+
+        assertEquals(first.getId(), replay.getId());
+        awaitSettled(List.of(first.getId()));
+        assertEquals(0, new BigDecimal("25").compareTo(accountService.getBalance(to)));
+    }
+
+    @Test
+    void pendingTransferIsPickedUpByRecovery() throws InterruptedException {
+        String from = open(100);
+        String to = open(0);
+        // As if accepted before a restart: in the table but not in the queue
+        Transaction lost = transactionRepository.save(new Transaction(null, Transaction.TransactionType.TRANSFER,
+                new BigDecimal("40"), from, to, Transaction.TransactionStatus.PENDING, null, "Transfer"));
+        jdbcTemplate.update("UPDATE transactions SET transaction_date = ? WHERE id = ?",
+                LocalDateTime.now().minusMinutes(1), lost.getId());
+
+        transferPipeline.resumePending();
+
+        awaitSettled(List.of(lost.getId()));
+        assertEquals(0, new BigDecimal("60").compareTo(accountService.getBalance(from)));
+        assertEquals(0, new BigDecimal("40").compareTo(accountService.getBalance(to)));
+    }
+
+    private void awaitSettled(List<Long> ids) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        for (Long id : ids) {
+            while (transactionService.getTransaction(id).getStatus() == Transaction.TransactionStatus.PENDING) {
+                if (System.nanoTime() > deadline) {
+                    throw new AssertionError("Transfer " + id + " still pending");
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private String open(int balance) {
+        Account account = accountService.createAccount(new AccountRequest("Pipeline Holder", new BigDecimal(balance),
+                "5550000000", "1 Queue St", LocalDate.of(1990, 1, 1), user.getId()));
+        return account.getAccountNumber();
+    }
+}
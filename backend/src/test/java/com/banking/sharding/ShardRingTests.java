@@ -0,0 +1,50 @@
+package com.banking.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRingTests {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    void spreadsSequentialAccountNumbersEvenly() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 256);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.shardFor(accountNumber(i)), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.forEach((shard, count) -> assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 * 0.15,
+                shard + " got " + count + " of " + KEYS + " accounts"));
+    }
+
+    @Test
+    void addingShardOnlyMovesKeysToIt() {
+        ShardRing before = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 256);
+        ShardRing after = new ShardRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 256);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String was = before.shardFor(accountNumber(i));
+            String now = after.shardFor(accountNumber(i));
+            if (!was.equals(now)) {
+                assertEquals("shard-3", now);
+                moved++;
+            }
+        }
+
+        // About a quarter of the accounts belong to the new shard
+        assertTrue(moved > KEYS * 0.18 && moved < KEYS * 0.32, moved + " of " + KEYS + " accounts moved");
+    }
+
+    private static String accountNumber(int i) {
+        return String.valueOf(1_000_000_000L + i);
+    }
+}
@@ -0,0 +1,241 @@
+package com.banking.sharding;
+
+import com.banking.dto.AccountRequest;
+import com.banking.dto.TransactionRequest;
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.banking.model.User;
+import com.banking.repository.UserRepository;
+import com.banking.service.AccountActivityService;
+import com.banking.service.AccountService;
+import com.banking.service.IdempotencyService;
+import com.banking.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Accounts spread over three in-memory H2 databases: local postings, transfers within and
+ * across shards, and the saga's compensation and recovery paths.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-0;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "banking.sharding.enabled=true",
+        "banking.sharding.nodes[0].url=jdbc:h2:mem:sharding-1;DB_CLOSE_DELAY=-1",
+        "banking.sharding.nodes[0].username=sa",
+        "banking.sharding.nodes[1].url=jdbc:h2:mem:sharding-2;DB_CLOSE_DELAY=-1",
+        "banking.sharding.nodes[1].username=sa",
+        // Recovery only runs when a test calls it, and then takes every pending transfer
+        "banking.sharding.saga.recovery-interval=PT1H",
+        "banking.sharding.saga.retry-after=0s"
+})
+class ShardedTransferTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountActivityService activityService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CrossShardTransfers crossShardTransfers;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String name = "shard-user-" + UUID.randomUUID();
+        user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void accountsLiveOnlyOnTheirShard() {
+        List<String> created = List.of(open(0), open(0), open(0), open(0), open(0), open(0));
+
+        for (String accountNumber : created) {
+            String home = shardRouter.shardOf(accountNumber);
+            for (String shard : List.of("shard-0", "shard-1", "shard-2")) {
+                assertEquals(shard.equals(home) ? 1 : 0, shard(shard).queryForObject(
+                        "SELECT COUNT(*) FROM accounts WHERE account_number = ?", Integer.class, accountNumber));
+            }
+        }
+        assertEquals(created.size(), accountService.getAccountsByUserId(user.getId()).size());
+    }
+
+    @Test
+    void sameShardTransferIsLocal() {
+        String from = open(100);
+        String to = openOnShard(shardRouter.shardOf(from), true);
+
+        Transaction transfer = transactionService.transfer(new TransactionRequest(from, new BigDecimal("40"), to, null));
+
+        assertEquals(Transaction.TransactionStatus.SUCCESS, transfer.getStatus());
+        assertBalance(from, "60");
+        assertBalance(to, "40");
+        assertEquals(0, sagaCount(shardRouter.shardOf(from), from));
+    }
+
+    @Test
+    void crossShardTransferCompletesThroughSaga() {
+        String from = open(0);
+        String to = openOnShard(shardRouter.shardOf(from), false);
+        transactionService.deposit(new TransactionRequest(from, new BigDecimal("100"), null, null));
+
+        Transaction transfer = transactionService.transfer(new TransactionRequest(from, new BigDecimal("30"), to, null));
+
+        assertEquals(Transaction.TransactionStatus.SUCCESS, transfer.getStatus());
+        assertBalance(from, "70");
+        assertBalance(to, "30");
+        assertEquals("COMPLETED", sagaState(shardRouter.shardOf(from), from));
+        assertEquals("CREDITED", sagaState(shardRouter.shardOf(to), from));
+
+        // Each side's history and totals are served by its own shard
+        assertEquals(2, transactionService.getTransactionHistory(from).size());
+        assertEquals(1, transactionService.getTransactionHistory(to).size());
+        assertEquals(1, activityService.getActivity(from).getTransferOutCount());
+        assertEquals(1, activityService.getActivity(to).getTransferInCount());
+    }
+
+    @Test
+    void insufficientFundsLeaveNoSaga() {
+        String from = open(10);
+        String to = openOnShard(shardRouter.shardOf(from), false);
+
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                () -> transactionService.transfer(new TransactionRequest(from, new BigDecimal("30"), to, null)));
+        assertEquals("Insufficient balance", rejected.getMessage());
+        assertBalance(from, "10");
+        assertEquals(0, sagaCount(shardRouter.shardOf(from), from));
+    }
+
+    @Test
+    void missingDestinationIsCompensated() {
+        String from = open(100);
+        String to = openOnShard(shardRouter.shardOf(from), false);
+        // Gone from its shard while the key filter still knows it
+        shard(shardRouter.shardOf(to)).update("DELETE FROM accounts WHERE account_number = ?", to);
+
+        Transaction transfer = transactionService.transfer(new TransactionRequest(from, new BigDecimal("30"), to, null));
+
+        assertEquals(Transaction.TransactionStatus.FAILED, transfer.getStatus());
+        assertBalance(from, "100");
+        assertEquals("COMPENSATED", sagaState(shardRouter.shardOf(from), from));
+    }
+
+    @Test
+    void pendingTransferIsResumedByRecovery() throws InterruptedException {
+        String from = open(100);
+        String to = openOnShard(shardRouter.shardOf(from), false);
+        JdbcTemplate destination = shard(shardRouter.shardOf(to));
+
+        // The destination shard fails after the debit has committed
+        destination.execute("ALTER TABLE transfer_sagas RENAME TO transfer_sagas_offline");
+        Transaction transfer;
+        try {
+            transfer = transactionService.transfer(new TransactionRequest(from, new BigDecimal("30"), to, null));
+        } finally {
+            destination.execute("ALTER TABLE transfer_sagas_offline RENAME TO transfer_sagas");
+        }
+        assertEquals(Transaction.TransactionStatus.PENDING, transfer.getStatus());
+        assertBalance(from, "70");
+        assertBalance(to, "0");
+
+        Thread.sleep(10);
+        crossShardTransfers.resumePending();
+
+        assertBalance(to, "30");
+        assertEquals("COMPLETED", sagaState(shardRouter.shardOf(from), from));
+        assertEquals("SUCCESS", shard(shardRouter.shardOf(from)).queryForObject(
+                "SELECT status FROM transactions WHERE id = ?", String.class, transfer.getId()));
+    }
+
+    @Test
+    void idempotentCrossShardTransferFinishesAfterKeyCommits() {
+        String from = open(100);
+        String to = openOnShard(shardRouter.shardOf(from), false);
+        TransactionRequest request = new TransactionRequest(from, new BigDecimal("25"), to, null);
+        String key = UUID.randomUUID().toString();
+
+        Transaction first = idempotencyService.execute(user.getId(), key, "TRANSFER", request,
+                requestKey -> transactionService.transfer(request, requestKey));
+        Transaction replay = idempotencyService.execute(user.getId(), key, "TRANSFER", request,
+                requestKey -> transactionService.transfer(request, requestKey));
+
+        assertEquals(Transaction.TransactionStatus.SUCCESS, first.getStatus());
+        assertEquals(first.getId(), replay.getId());
+        assertBalance(from, "75");
+        assertBalance(to, "25");
+    }
+
+    private String open(int balance) {
+        Account account = accountService.createAccount(new AccountRequest("Shard Holder", new BigDecimal(balance),
+                "5550000000", "1 Ring Rd", LocalDate.of(1990, 1, 1), user.getId()));
+        return account.getAccountNumber();
+    }
+
+    /**
+     * Open accounts until one lands on (or off) the given shard
+     */
+    private String openOnShard(String shard, boolean same) {
+        for (int i = 0; i < 50; i++) {
+            String accountNumber = open(0);
+            if (shard.equals(shardRouter.shardOf(accountNumber)) == same) {
+                return accountNumber;
+            }
+        }
+        throw new IllegalStateException("No account landed " + (same ? "on " : "off ") + shard);
+    }
+
+    private void assertBalance(String accountNumber, String expected) {
+        assertEquals(0, new BigDecimal(expected).compareTo(accountService.getBalance(accountNumber)),
+                accountNumber + " balance");
+    }
+
+    private int sagaCount(String shard, String fromAccount) {
+        return shard(shard).queryForObject(
+                "SELECT COUNT(*) FROM transfer_sagas WHERE from_account = ?", Integer.class, fromAccount);
+    }
+
+    private String sagaState(String shard, String fromAccount) {
+        List<String> states = shard(shard).queryForList(
+                "SELECT state FROM transfer_sagas WHERE from_account = ?", String.class, fromAccount);
+        assertEquals(1, states.size());
+        return states.get(0);
+    }
+
+    private JdbcTemplate shard(String name) {
+        return new JdbcTemplate(((ShardedDataSource) dataSource).getShard(name));
+    }
+}
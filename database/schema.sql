@@ -6,11 +6,28 @@
 CREATE DATABASE IF NOT EXISTS banking_system;
 USE banking_system;
 
+-- ============================================
+-- ID Sequences
+-- MySQL has no native sequences, so Hibernate emulates the pooled
+-- users_seq / accounts_seq / transactions_seq / transaction_audit_seq generators with one-row
+-- tables. Each fetch reserves a block of 50 ids, which lets inserts be
+-- JDBC-batched. Values start above the sample data ids below.
+-- ============================================
+CREATE TABLE IF NOT EXISTS users_seq (next_val BIGINT) ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS accounts_seq (next_val BIGINT) ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS transactions_seq (next_val BIGINT) ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS transaction_audit_seq (next_val BIGINT) ENGINE=InnoDB;
+
+INSERT INTO users_seq (next_val) VALUES (101);
+INSERT INTO accounts_seq (next_val) VALUES (101);
+INSERT INTO transactions_seq (next_val) VALUES (101);
+INSERT INTO transaction_audit_seq (next_val) VALUES (1);
+
 -- ============================================
 -- Users Table
 -- ============================================
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     username VARCHAR(50) NOT NULL UNIQUE,
     email VARCHAR(100) NOT NULL UNIQUE,
     password VARCHAR(255) NOT NULL,
@@ -23,7 +40,7 @@ CREATE TABLE IF NOT EXISTS users (
 -- Accounts Table
 -- ============================================
 CREATE TABLE IF NOT EXISTS accounts (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     account_number VARCHAR(20) NOT NULL UNIQUE,
     holder_name VARCHAR(100) NOT NULL,
     balance DECIMAL(15, 2) NOT NULL DEFAULT 0.00,
@@ -32,16 +49,24 @@ CREATE TABLE IF NOT EXISTS accounts (
     date_of_birth DATE NOT NULL,
     user_id BIGINT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    -- No foreign key to users: with sharding a user and their accounts may sit on different shards
     INDEX idx_account_number (account_number),
     INDEX idx_user_id (user_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- ============================================
+-- Account Number Sequence (block allocation)
+-- ============================================
+CREATE TABLE IF NOT EXISTS account_number_sequence (
+    name VARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- ============================================
 -- Transactions Table
 -- ============================================
 CREATE TABLE IF NOT EXISTS transactions (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     type ENUM('DEPOSIT', 'WITHDRAW', 'TRANSFER') NOT NULL,
     amount DECIMAL(15, 2) NOT NULL,
     from_account VARCHAR(20),
@@ -49,9 +74,107 @@ CREATE TABLE IF NOT EXISTS transactions (
     status ENUM('SUCCESS', 'FAILED', 'PENDING') NOT NULL,
     transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     description VARCHAR(255),
-    INDEX idx_from_account (from_account),
-    INDEX idx_to_account (to_account),
-    INDEX idx_transaction_date (transaction_date)
+    INDEX idx_from_account_date_id (from_account, transaction_date, id),
+    INDEX idx_to_account_date_id (to_account, transaction_date, id),
+    INDEX idx_transaction_date (transaction_date),
+    INDEX idx_status_date (status, transaction_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Transaction Audit Table
+-- Append-only record of rejected attempts, written in batches off the request thread
+-- ============================================
+CREATE TABLE IF NOT EXISTS transaction_audit (
+    id BIGINT PRIMARY KEY,
+    type ENUM('DEPOSIT', 'WITHDRAW', 'TRANSFER') NOT NULL,
+    amount DECIMAL(15, 2),
+    from_account VARCHAR(20),
+    to_account VARCHAR(20),
+    reason VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    attempted_at TIMESTAMP NOT NULL,
+    INDEX idx_audit_from_account_attempted (from_account, attempted_at),
+    INDEX idx_audit_attempted_at (attempted_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Idempotency Keys Table
+-- ============================================
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    fingerprint VARCHAR(32) NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key),
+    INDEX idx_idempotency_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Account Activity Tables
+-- ============================================
+CREATE TABLE IF NOT EXISTS account_activity (
+    account_number VARCHAR(20) PRIMARY KEY,
+    deposit_count BIGINT NOT NULL,
+    deposit_amount DECIMAL(19, 2) NOT NULL,
+    withdraw_count BIGINT NOT NULL,
+    withdraw_amount DECIMAL(19, 2) NOT NULL,
+    transfer_in_count BIGINT NOT NULL,
+    transfer_in_amount DECIMAL(19, 2) NOT NULL,
+    transfer_out_count BIGINT NOT NULL,
+    transfer_out_amount DECIMAL(19, 2) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS account_daily_activity (
+    account_number VARCHAR(20) NOT NULL,
+    activity_date DATE NOT NULL,
+    deposit_count BIGINT NOT NULL,
+    deposit_amount DECIMAL(19, 2) NOT NULL,
+    withdraw_count BIGINT NOT NULL,
+    withdraw_amount DECIMAL(19, 2) NOT NULL,
+    transfer_in_count BIGINT NOT NULL,
+    transfer_in_amount DECIMAL(19, 2) NOT NULL,
+    transfer_out_count BIGINT NOT NULL,
+    transfer_out_amount DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (account_number, activity_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Account Balance Slots Table
+-- Striped balance shares of hot accounts, folded back into accounts.balance on consolidation
+-- ============================================
+CREATE TABLE IF NOT EXISTS account_balance_slots (
+    account_number VARCHAR(20) NOT NULL,
+    slot INT NOT NULL,
+    balance DECIMAL(15, 2) NOT NULL,
+    deposit_count BIGINT NOT NULL,
+    deposit_amount DECIMAL(19, 2) NOT NULL,
+    activity_date DATE NOT NULL,
+    PRIMARY KEY (account_number, slot)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Ledger Checkpoint Table
+-- ============================================
+CREATE TABLE IF NOT EXISTS ledger_checkpoint (
+    name VARCHAR(50) PRIMARY KEY,
+    sequence BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Transfer Sagas Table
+-- Progress of transfers between accounts on different shards
+-- ============================================
+CREATE TABLE IF NOT EXISTS transfer_sagas (
+    id VARCHAR(36) PRIMARY KEY,
+    from_account VARCHAR(20) NOT NULL,
+    to_account VARCHAR(20) NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    state ENUM('DEBITED', 'CREDITED', 'COMPLETED', 'COMPENSATED') NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    INDEX idx_transfer_saga_state_updated (state, updated_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- ============================================
@@ -59,16 +182,16 @@ CREATE TABLE IF NOT EXISTS transactions (
 -- ============================================
 
 -- Insert sample user
-INSERT INTO users (username, email, password) 
-VALUES ('testuser', 'test@example.com', 'password123');
+INSERT INTO users (id, username, email, password)
+VALUES (1, 'testuser', 'test@example.com', 'password123');
 
 -- Insert sample account
-INSERT INTO accounts (account_number, holder_name, balance, phone, address, date_of_birth, user_id)
-VALUES ('123456789012', 'John Doe', 1000.00, '1234567890', '123 Main St', '1990-01-01', 1);
+INSERT INTO accounts (id, account_number, holder_name, balance, phone, address, date_of_birth, user_id)
+VALUES (1, '123456789012', 'John Doe', 1000.00, '1234567890', '123 Main St', '1990-01-01', 1);
 
 -- Insert sample transactions
-INSERT INTO transactions (type, amount, to_account, status, description)
-VALUES ('DEPOSIT', 500.00, '123456789012', 'SUCCESS', 'Initial deposit');
+INSERT INTO transactions (id, type, amount, to_account, status, description)
+VALUES (1, 'DEPOSIT', 500.00, '123456789012', 'SUCCESS', 'Initial deposit');
 
-INSERT INTO transactions (type, amount, from_account, status, description)
-VALUES ('WITHDRAW', 200.00, '123456789012', 'SUCCESS', 'ATM withdrawal');
+INSERT INTO transactions (id, type, amount, from_account, status, description)
+VALUES (2, 'WITHDRAW', 200.00, '123456789012', 'SUCCESS', 'ATM withdrawal');
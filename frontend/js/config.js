@@ -9,8 +9,16 @@ const API_ENDPOINTS = {
     // Auth endpoints
     REGISTER: `${API_BASE_URL}/auth/register`,
     LOGIN: `${API_BASE_URL}/auth/login`,
+    LOGOUT: `${API_BASE_URL}/auth/logout`,
     
-    // Account endpoints
+    // Dashboard, account and transaction endpoints need the login token (Authorization: Bearer)
+
+    // Dashboard: accounts plus latest transactions of each, in one request
+    DASHBOARD: (userId) => `${API_BASE_URL}/dashboard/${userId}`,
+    // Server-Sent Events: balance, transaction and account updates pushed after each posting.
+    // EventSource cannot set headers, so the token goes in the query string
+    EVENTS: (userId, token) => `${API_BASE_URL}/events/${userId}?access_token=${encodeURIComponent(token)}`,
+
     CREATE_ACCOUNT: `${API_BASE_URL}/accounts/create`,
     GET_USER_ACCOUNTS: (userId) => `${API_BASE_URL}/accounts/user/${userId}`,
     GET_ACCOUNT: (accountNumber) => `${API_BASE_URL}/accounts/${accountNumber}`,
@@ -5,43 +5,79 @@
 
 let currentUser = null;
 let userAccounts = [];
+let recentTransactions = {};
+let eventSource = null;
+
+// Transactions kept per account, matching the dashboard endpoint's default
+const RECENT_TRANSACTIONS = 10;
 
 // Initialize dashboard when page loads
 document.addEventListener('DOMContentLoaded', () => {
     // Check if user is logged in
     const userData = localStorage.getItem('user');
 
-    if (!userData) {
+    currentUser = userData ? JSON.parse(userData) : null;
+
+    // Sessions saved before login issued tokens have to log in again
+    if (!currentUser || !currentUser.token) {
+        localStorage.removeItem('user');
         window.location.href = 'index.html';
         return;
     }
 
-    currentUser = JSON.parse(userData);
-
     // Display user info
     document.getElementById('userDisplay').textContent = currentUser.username;
     document.getElementById('welcomeUser').textContent = currentUser.username;
 
-    // Load user accounts
-    loadAccounts();
+    // Load accounts and recent transactions once, then follow live updates
+    loadDashboard().then(subscribeToEvents);
 });
 
 // Logout handler
 document.getElementById('logoutBtn').addEventListener('click', () => {
+    // Revoke the session token; the page is left either way
+    fetch(API_ENDPOINTS.LOGOUT, { method: 'POST', headers: authHeader(), keepalive: true })
+        .catch(() => {});
+    endSession();
+});
+
+// Close live updates, forget the user and go back to the login page
+function endSession() {
+    if (eventSource) {
+        eventSource.close();
+    }
     localStorage.removeItem('user');
     window.location.href = 'index.html';
-});
+}
+
+function authHeader() {
+    return { 'Authorization': `Bearer ${currentUser.token}` };
+}
+
+// fetch() with the session token; an expired or revoked session returns to the login page
+async function authorizedFetch(url, options = {}) {
+    const response = await fetch(url, {
+        ...options,
+        headers: { ...options.headers, ...authHeader() }
+    });
+    if (response.status === 401) {
+        endSession();
+    }
+    return response;
+}
 
-// Load user accounts
-async function loadAccounts() {
+// Load accounts with their recent transactions in one request
+async function loadDashboard() {
     try {
-        const response = await fetch(API_ENDPOINTS.GET_USER_ACCOUNTS(currentUser.id));
+        const response = await authorizedFetch(API_ENDPOINTS.DASHBOARD(currentUser.id));
         const data = await response.json();
 
         if (data.success) {
-            userAccounts = data.data;
+            userAccounts = data.data.accounts;
+            recentTransactions = data.data.recentTransactions;
             displayAccounts();
             populateAccountDropdowns();
+            showSelectedTransactions();
         }
     } catch (error) {
         console.error('Error loading accounts:', error);
@@ -49,6 +85,62 @@ async function loadAccounts() {
     }
 }
 
+// Follow balance, transaction and new-account events instead of polling
+function subscribeToEvents() {
+    if (!window.EventSource) {
+        return;
+    }
+
+    let connectedBefore = false;
+    eventSource = new EventSource(API_ENDPOINTS.EVENTS(currentUser.id, currentUser.token));
+
+    eventSource.addEventListener('open', () => {
+        // The browser reconnects on its own; events missed meanwhile are recovered by one reload
+        if (connectedBefore) {
+            loadDashboard();
+        }
+        connectedBefore = true;
+    });
+
+    eventSource.addEventListener('balance', (e) => {
+        const update = JSON.parse(e.data);
+        const account = userAccounts.find(a => a.accountNumber === update.accountNumber);
+        if (account) {
+            account.balance = update.balance;
+            displayAccounts();
+        }
+    });
+
+    eventSource.addEventListener('transaction', (e) => {
+        const transaction = JSON.parse(e.data);
+        [transaction.fromAccount, transaction.toAccount].forEach(accountNumber => {
+            const list = recentTransactions[accountNumber];
+            if (list && !list.some(t => t.id === transaction.id)) {
+                list.unshift(transaction);
+                list.length = Math.min(list.length, RECENT_TRANSACTIONS);
+            }
+        });
+        showSelectedTransactions();
+    });
+
+    eventSource.addEventListener('account', (e) => {
+        const account = JSON.parse(e.data);
+        if (!userAccounts.some(a => a.accountNumber === account.accountNumber)) {
+            userAccounts.push(account);
+            recentTransactions[account.accountNumber] = [];
+            displayAccounts();
+            populateAccountDropdowns();
+        }
+    });
+}
+
+// Reload after an operation only when live updates are not flowing
+async function refreshIfNotStreaming() {
+    if (!eventSource || eventSource.readyState !== EventSource.OPEN) {
+        await loadDashboard();
+    }
+}
+
 // Display accounts
 function displayAccounts() {
     const accountsList = document.getElementById('accountsList');
@@ -91,8 +183,12 @@ function populateAccountDropdowns() {
         '<option value="">Choose account...</option>' + accountOptions;
     document.getElementById('transferFromAccount').innerHTML =
         '<option value="">Choose account...</option>' + accountOptions;
-    document.getElementById('accountFilter').innerHTML =
+    // Keep the account whose transactions are shown selected across reloads
+    const accountFilter = document.getElementById('accountFilter');
+    const selected = accountFilter.value;
+    accountFilter.innerHTML =
         '<option value="">Select an account to view transactions</option>' + accountOptions;
+    accountFilter.value = selected;
 }
 
 // Show toast notification
@@ -110,6 +206,23 @@ function showToast(message, type = 'success') {
     }, 3000);
 }
 
+// Idempotency key for a form submission. The key is kept when the request fails
+// in transit, so resubmitting cannot post twice, and dropped once the server answers
+// or the form is edited.
+function idempotencyKeyFor(form) {
+    if (!form.dataset.idempotencyKey) {
+        form.dataset.idempotencyKey = window.crypto && crypto.randomUUID
+            ? crypto.randomUUID()
+            : Date.now().toString(36) + '-' + Math.random().toString(36).slice(2);
+    }
+    return form.dataset.idempotencyKey;
+}
+
+['depositForm', 'withdrawForm', 'transferForm'].forEach((formId) => {
+    const form = document.getElementById(formId);
+    form.addEventListener('input', () => delete form.dataset.idempotencyKey);
+});
+
 // Create Account Form Handler
 document.getElementById('createAccountForm').addEventListener('submit', async (e) => {
     e.preventDefault();
@@ -124,7 +237,7 @@ document.getElementById('createAccountForm').addEventListener('submit', async (e
     };
 
     try {
-        const response = await fetch(API_ENDPOINTS.CREATE_ACCOUNT, {
+        const response = await authorizedFetch(API_ENDPOINTS.CREATE_ACCOUNT, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json'
@@ -143,10 +256,8 @@ document.getElementById('createAccountForm').addEventListener('submit', async (e
             // Reset form
             document.getElementById('createAccountForm').reset();
 
-            // Reload accounts after a short delay to ensure backend persistence
-            setTimeout(async () => {
-                await loadAccounts();
-            }, 500);
+            // The new account arrives as an event; reload only without a live stream
+            await refreshIfNotStreaming();
         } else {
             showToast(data.message || 'Failed to create account', 'danger');
         }
@@ -167,15 +278,18 @@ document.getElementById('depositForm').addEventListener('submit', async (e) => {
     };
 
     try {
-        const response = await fetch(API_ENDPOINTS.DEPOSIT, {
+        const form = document.getElementById('depositForm');
+        const response = await authorizedFetch(API_ENDPOINTS.DEPOSIT, {
             method: 'POST',
             headers: {
-                'Content-Type': 'application/json'
+                'Content-Type': 'application/json',
+                'Idempotency-Key': idempotencyKeyFor(form)
             },
             body: JSON.stringify(transactionData)
         });
 
         const data = await response.json();
+        delete form.dataset.idempotencyKey;
 
         if (data.success) {
             showToast('Deposit successful!', 'success');
@@ -186,8 +300,8 @@ document.getElementById('depositForm').addEventListener('submit', async (e) => {
             // Reset form
             document.getElementById('depositForm').reset();
 
-            // Reload accounts
-            await loadAccounts();
+            // Balances and the transaction arrive as events
+            await refreshIfNotStreaming();
         } else {
             showToast(data.message || 'Deposit failed', 'danger');
         }
@@ -208,15 +322,18 @@ document.getElementById('withdrawForm').addEventListener('submit', async (e) =>
     };
 
     try {
-        const response = await fetch(API_ENDPOINTS.WITHDRAW, {
+        const form = document.getElementById('withdrawForm');
+        const response = await authorizedFetch(API_ENDPOINTS.WITHDRAW, {
             method: 'POST',
             headers: {
-                'Content-Type': 'application/json'
+                'Content-Type': 'application/json',
+                'Idempotency-Key': idempotencyKeyFor(form)
             },
             body: JSON.stringify(transactionData)
         });
 
         const data = await response.json();
+        delete form.dataset.idempotencyKey;
 
         if (data.success) {
             showToast('Withdrawal successful!', 'success');
@@ -227,8 +344,8 @@ document.getElementById('withdrawForm').addEventListener('submit', async (e) =>
             // Reset form
             document.getElementById('withdrawForm').reset();
 
-            // Reload accounts
-            await loadAccounts();
+            // Balances and the transaction arrive as events
+            await refreshIfNotStreaming();
         } else {
             showToast(data.message || 'Withdrawal failed', 'danger');
         }
@@ -250,15 +367,18 @@ document.getElementById('transferForm').addEventListener('submit', async (e) =>
     };
 
     try {
-        const response = await fetch(API_ENDPOINTS.TRANSFER, {
+        const form = document.getElementById('transferForm');
+        const response = await authorizedFetch(API_ENDPOINTS.TRANSFER, {
             method: 'POST',
             headers: {
-                'Content-Type': 'application/json'
+                'Content-Type': 'application/json',
+                'Idempotency-Key': idempotencyKeyFor(form)
             },
             body: JSON.stringify(transactionData)
         });
 
         const data = await response.json();
+        delete form.dataset.idempotencyKey;
 
         if (data.success) {
             showToast('Transfer successful!', 'success');
@@ -269,8 +389,8 @@ document.getElementById('transferForm').addEventListener('submit', async (e) =>
             // Reset form
             document.getElementById('transferForm').reset();
 
-            // Reload accounts
-            await loadAccounts();
+            // Balances and the transaction arrive as events
+            await refreshIfNotStreaming();
         } else {
             showToast(data.message || 'Transfer failed', 'danger');
         }
@@ -281,8 +401,11 @@ document.getElementById('transferForm').addEventListener('submit', async (e) =>
 });
 
 // Account filter change handler
-document.getElementById('accountFilter').addEventListener('change', async (e) => {
-    const accountNumber = e.target.value;
+document.getElementById('accountFilter').addEventListener('change', showSelectedTransactions);
+
+// Show the recent transactions of the selected account (already loaded with the dashboard)
+function showSelectedTransactions() {
+    const accountNumber = document.getElementById('accountFilter').value;
 
     if (!accountNumber) {
         document.getElementById('transactionsList').innerHTML = `
@@ -295,22 +418,7 @@ document.getElementById('accountFilter').addEventListener('change', async (e) =>
         return;
     }
 
-    await loadTransactions(accountNumber);
-});
-
-// Load transactions for an account
-async function loadTransactions(accountNumber) {
-    try {
-        const response = await fetch(API_ENDPOINTS.GET_TRANSACTIONS(accountNumber));
-        const data = await response.json();
-
-        if (data.success) {
-            displayTransactions(data.data);
-        }
-    } catch (error) {
-        console.error('Error loading transactions:', error);
-        showToast('Error loading transactions', 'danger');
-    }
+    displayTransactions(recentTransactions[accountNumber] || []);
 }
 
 // Display transactions